@@ -0,0 +1,231 @@
+package concurrent.list;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A time-ordered window of elements, backed by a SemaphorizedLinkedList, where
+ * every element expires a fixed time after it was inserted.
+ *
+ * <p>
+ * Elements are only appended, so the expired ones normally form a prefix of
+ * the list. That prefix is removed while headSemaphore is held:
+ * <ul>
+ * <li>by {@link #expire()}, that can be scheduled as a background reaper
+ * with {@link #scheduleExpiry};</li>
+ * <li>by the inserts, once the current head is due to expire.</li>
+ * </ul>
+ * Inserts racing with each other may append their elements slightly out of
+ * expiry order, leaving an expired element behind a live one. removeFirst
+ * and drainTo skip such elements, so expired elements are never returned.
+ *
+ * @author Raphael Negrisoli Batista
+ *
+ * @param <E>
+ */
+public class ExpiringLinkedList<E> {
+
+    private final SemaphorizedLinkedList<Entry<E>> list = new SemaphorizedLinkedList<>();
+    private final long ttl;
+    private final Clock clock;
+    private final AtomicLong expired = new AtomicLong();
+    private volatile long nextExpiry = Long.MAX_VALUE;
+
+    /**
+     * The time source of the list, replaceable in tests. Its readings are
+     * only compared with each other, so they need not be wall clock time.
+     */
+    public interface Clock {
+        /**
+         * A monotonic clock, unaffected by changes to the wall clock.
+         */
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long millis() {
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+            }
+        };
+
+        long millis();
+    }
+
+    private static class Entry<E> {
+        final E element;
+        final long expiresAt;
+
+        Entry(E element, long expiresAt) {
+            this.element = element;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Accepts the expired entries and remembers when the first live one
+     * expires.
+     */
+    private static class ExpiredFilter<E> implements SemaphorizedLinkedList.Filter<Entry<E>> {
+        private final long now;
+        private long nextExpiry = Long.MAX_VALUE;
+
+        ExpiredFilter(long now) {
+            this.now = now;
+        }
+
+        @Override
+        public boolean accept(Entry<E> entry) {
+            if (entry.expiresAt <= now) {
+                return true;
+            }
+
+            nextExpiry = entry.expiresAt;
+            return false;
+        }
+    }
+
+    public ExpiringLinkedList(long ttl, TimeUnit unit) {
+        this(ttl, unit, Clock.SYSTEM);
+    }
+
+    public ExpiringLinkedList(long ttl, TimeUnit unit, Clock clock) {
+        final long millis = unit.toMillis(ttl);
+        if (millis <= 0) {
+            // also rejects TTLs truncated to 0 milliseconds
+            throw new IllegalArgumentException("TTL: " + ttl + " " + unit);
+        }
+        if (clock == null) {
+            throw new NullPointerException("Clock");
+        }
+
+        this.ttl = millis;
+        this.clock = clock;
+    }
+
+    public void insertLast(E element) {
+        final long now = clock.millis();
+
+        if (now >= nextExpiry) {
+            expire(now);
+        }
+
+        final long expiresAt = now + ttl;
+        list.insertLast(new Entry<>(element, expiresAt));
+
+        if (expiresAt < nextExpiry) {
+            nextExpiry = expiresAt;
+        }
+    }
+
+    /**
+     * @return the first element that has not expired, or null if there is none
+     */
+    public E removeFirst() {
+        final long now = clock.millis();
+        expire(now);
+
+        while (true) {
+            final List<Entry<E>> entries = list.removeFirst(1);
+            if (entries.isEmpty()) {
+                return null;
+            }
+
+            final Entry<E> entry = entries.get(0);
+            if (entry.expiresAt > now) {
+                return entry.element;
+            }
+
+            // appended out of expiry order, behind a live element
+            expired.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes up to max elements that have not expired from the head and adds
+     * them to the given collection.
+     *
+     * @return the number of elements transferred
+     */
+    public int drainTo(Collection<? super E> c, int max) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+
+        final long now = clock.millis();
+        expire(now);
+
+        final List<Entry<E>> entries = new ArrayList<>();
+        int count = 0;
+        while (count < max && list.drainTo(entries, max - count) > 0) {
+            for (Entry<E> entry : entries) {
+                if (entry.expiresAt > now) {
+                    c.add(entry.element);
+                    count++;
+                } else {
+                    // appended out of expiry order, behind a live element
+                    expired.incrementAndGet();
+                }
+            }
+            entries.clear();
+        }
+        return count;
+    }
+
+    /**
+     * Removes the expired prefix of the list, holding the head semaphore for
+     * the whole batch. Each expired element still costs two semaphore
+     * acquisitions, its own and its successor's, so a long expired prefix
+     * conflicts with concurrent removals once per element.
+     *
+     * @return the number of elements removed
+     */
+    public int expire() {
+        return expire(clock.millis());
+    }
+
+    /**
+     * Runs {@link #expire()} on the executor with the given fixed delay,
+     * until the returned future is cancelled.
+     */
+    public ScheduledFuture<?> scheduleExpiry(ScheduledExecutorService executor, long delay, TimeUnit unit) {
+        return executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                expire();
+            }
+        }, delay, delay, unit);
+    }
+
+    /**
+     * @return the number of elements removed by expiry since the list was
+     *         created
+     */
+    public long expiredCount() {
+        return expired.get();
+    }
+
+    public int size() {
+        return list.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private int expire(long now) {
+        final ExpiredFilter<E> filter = new ExpiredFilter<>(now);
+        final int count = list.drainWhile(null, filter);
+
+        // an insert racing with this may be missed, it only delays its expiry
+        // until the next insert or reaper run
+        nextExpiry = filter.nextExpiry;
+
+        if (count > 0) {
+            expired.addAndGet(count);
+        }
+        return count;
+    }
+}
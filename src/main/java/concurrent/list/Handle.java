@@ -0,0 +1,33 @@
+package concurrent.list;
+
+/**
+ * A stable reference to the node holding an element of a list.
+ *
+ * <p>
+ * Handles are returned by the insert operations and let the list insert
+ * around or remove the node in constant time, without resolving an index.
+ * A handle stays valid until its node is removed; from then on the list
+ * operations taking it throw {@link IllegalStateException}.
+ *
+ * <p>
+ * A handle must only be passed back to the list that returned it; the list
+ * operations taking a handle of another list throw
+ * {@link IllegalArgumentException}.
+ *
+ * @author Raphael Negrisoli Batista
+ *
+ * @param <E>
+ */
+public interface Handle<E> {
+
+    /**
+     * @return the element of the node
+     * @throws IllegalStateException if the node was removed
+     */
+    E get();
+
+    /**
+     * @return whether the node was removed from its list
+     */
+    boolean isRemoved();
+}
@@ -0,0 +1,222 @@
+package concurrent.list;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Searches the nodes of a linked list from both ends at once.
+ *
+ * <p>
+ * The calling thread scans from the end the search is anchored at, the head
+ * for indexOf and contains and the tail for lastIndexOf. Meanwhile a task on
+ * the executor scans the other half of the list from the opposite end:
+ * <ul>
+ * <li>the calling thread stops at the first node scanned by the task, so a
+ * match in the far half is found after walking half of the list instead of
+ * all of it;</li>
+ * <li>contains stops as soon as either scan finds a match;</li>
+ * <li>a match found by the calling thread stops the task.</li>
+ * </ul>
+ * Neither thread walks to range starts beforehand, and a search never walks
+ * more nodes on the calling thread than the sequential scan. If the task has
+ * not reached its last node by the time the calling thread gets there, the
+ * calling thread simply goes on to the end. Lists smaller than the threshold
+ * are scanned on the calling thread only.
+ *
+ * <p>
+ * Like the sequential scan, the search is weakly consistent: it does not
+ * lock the list, so concurrent changes may or may not be seen.
+ *
+ * @author Raphael Negrisoli Batista
+ */
+public class ParallelSearch {
+
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    private static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    private final ExecutorService executor;
+    private final int threshold;
+
+    /**
+     * The view of a list the search walks through.
+     *
+     * @param <N> the node type
+     */
+    interface Chain<N> {
+        N first();
+
+        N last();
+
+        N next(N node);
+
+        N prev(N node);
+
+        boolean matches(N node, Object o);
+    }
+
+    public ParallelSearch(ExecutorService executor) {
+        this(executor, DEFAULT_THRESHOLD);
+    }
+
+    public ParallelSearch(ExecutorService executor, int threshold) {
+        if (executor == null) {
+            throw new NullPointerException("Executor");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold: " + threshold);
+        }
+
+        this.executor = executor;
+        this.threshold = threshold;
+    }
+
+    <N> int indexOf(Chain<N> chain, Object o, int size) {
+        final int found = search(chain, o, size, true, false);
+        return found != NOT_FOUND ? found : -1;
+    }
+
+    <N> int lastIndexOf(Chain<N> chain, Object o, int size) {
+        final int found = search(chain, o, size, false, false);
+        // elements prepended during the search may put the match before index 0
+        return found < size ? size - 1 - found : -1;
+    }
+
+    <N> boolean contains(Chain<N> chain, Object o, int size) {
+        return search(chain, o, size, true, true) != NOT_FOUND;
+    }
+
+    /**
+     * @param any whether any match will do, in which case only whether the
+     *        result is NOT_FOUND is meaningful
+     * @return the distance of the nearest match from the end the search is
+     *         anchored at, or NOT_FOUND
+     */
+    private <N> int search(Chain<N> chain, Object o, int size, boolean forward, boolean any) {
+        final N start = forward ? chain.first() : chain.last();
+
+        if (size < 2 || size < threshold) {
+            N node = start;
+            for (int i = 0; node != null; i++) {
+                if (chain.matches(node, o)) {
+                    return i;
+                }
+                node = forward ? chain.next(node) : chain.prev(node);
+            }
+            return NOT_FOUND;
+        }
+
+        final Far<N> far = new Far<>(chain, o, forward ? chain.last() : chain.first(), !forward, size >> 1, any);
+        final Future<?> task = executor.submit(far);
+
+        try {
+            N node = start;
+            for (int i = 0; node != null; i++) {
+                if (node == far.boundary) {
+                    // the task scanned the rest of the list
+                    await(task);
+                    return far.found != NOT_FOUND ? i + far.boundaryOrdinal - far.found : NOT_FOUND;
+                }
+                if (far.matched) {
+                    return i;
+                }
+
+                if (chain.matches(node, o)) {
+                    return i;
+                }
+
+                node = forward ? chain.next(node) : chain.prev(node);
+            }
+            return NOT_FOUND;
+        } finally {
+            far.stop = true;
+        }
+    }
+
+    private void await(Future<?> task) {
+        boolean interrupted = false;
+
+        try {
+            while (true) {
+                try {
+                    task.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (CancellationException e) {
+                    return;
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Scans up to count nodes from the end opposite to the one the search is
+     * anchored at, towards the calling thread.
+     */
+    private static class Far<N> implements Runnable {
+        private final Chain<N> chain;
+        private final Object o;
+        private final N start;
+        private final boolean forward;
+        private final int count;
+        private final boolean any;
+
+        // set once the result no longer depends on this scan
+        volatile boolean stop;
+        // set when any and a match was found
+        volatile boolean matched;
+        // the last node of the range, set when the scan reaches it
+        volatile N boundary;
+
+        // read by the calling thread once the task is done
+        int boundaryOrdinal;
+        int found = NOT_FOUND;
+
+        Far(Chain<N> chain, Object o, N start, boolean forward, int count, boolean any) {
+            this.chain = chain;
+            this.o = o;
+            this.start = start;
+            this.forward = forward;
+            this.count = count;
+            this.any = any;
+        }
+
+        @Override
+        public void run() {
+            N node = start;
+            for (int i = 0; node != null && i < count && !stop; i++) {
+                if (i == count - 1) {
+                    boundaryOrdinal = i;
+                    boundary = node;
+                }
+
+                // the match nearest to the calling thread is the last one seen
+                if (chain.matches(node, o)) {
+                    found = i;
+                    if (any) {
+                        matched = true;
+                        return;
+                    }
+                }
+
+                node = forward ? chain.next(node) : chain.prev(node);
+            }
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package concurrent.list;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A doubly linked list protected by fair semaphores.
@@ -15,6 +20,20 @@ import java.util.concurrent.Semaphore;
  * <li>Release the predecessor semaphore (or headSemaphore);</li>
  * </ol>
  *
+ * <p>
+ * Removing an element also acquires its own semaphore, between the
+ * predecessor and successor semaphores. Otherwise the removals of two
+ * adjacent elements would acquire disjoint semaphores and both unlink their
+ * element from a stale neighbour.
+ *
+ * <p>
+ * In read-mostly mode, get, getFirst, getLast and toArray read an immutable
+ * array of the elements instead of walking the nodes. The array is rebuilt
+ * by the first read after a change, so a burst of changes costs a single
+ * rebuild. Every change acquires one permit of snapshotSemaphore, and the
+ * rebuild acquires all of them, so the nodes never change while they are
+ * copied.
+ *
  * @author Raphael Negrisoli Batista
  *
  * @param <E>
@@ -26,21 +45,117 @@ public class SemaphorizedLinkedList<E> {
     private Semaphore headSemaphore = new Semaphore(1, true);
     private Semaphore tailSemaphore = new Semaphore(1, true);
     private int size = 0;
+    private ParallelSearch search = null;
 
-    private static class Node<E> {
+    private static final int SNAPSHOT_PERMITS = Integer.MAX_VALUE;
+
+    // null unless in read-mostly mode
+    private final Semaphore snapshotSemaphore;
+    private final Semaphore rebuildSemaphore = new Semaphore(1, true);
+    private final AtomicLong modCount = new AtomicLong();
+    private volatile Snapshot snapshot = null;
+
+    private static class Node<E> implements Handle<E> {
+        final SemaphorizedLinkedList<E> list;
         E element;
         Node<E> next;
         Node<E> prev;
         Semaphore semaphore = new Semaphore(1, true);
+        volatile boolean removed;
 
-        Node(Node<E> prev, E element, Node<E> next) {
+        Node(SemaphorizedLinkedList<E> list, Node<E> prev, E element, Node<E> next) {
+            this.list = list;
             this.element = element;
             this.next = next;
             this.prev = prev;
         }
+
+        @Override
+        public E get() {
+            final E e = element;
+            if (removed) {
+                throw new IllegalStateException("Node was removed");
+            }
+            return e;
+        }
+
+        @Override
+        public boolean isRemoved() {
+            return removed;
+        }
     }
 
-    public void insertFirst(E element) {
+    /**
+     * The elements of the list when modCount had the given value.
+     */
+    private static class Snapshot {
+        final Object[] elements;
+        final long modCount;
+
+        Snapshot(Object[] elements, long modCount) {
+            this.elements = elements;
+            this.modCount = modCount;
+        }
+    }
+
+    /**
+     * Selects the elements removed by {@link SemaphorizedLinkedList#drainWhile}.
+     *
+     * @param <E>
+     */
+    interface Filter<E> {
+        boolean accept(E element);
+    }
+
+    private final ParallelSearch.Chain<Node<E>> chain = new ParallelSearch.Chain<Node<E>>() {
+        @Override
+        public Node<E> first() {
+            return head;
+        }
+
+        @Override
+        public Node<E> last() {
+            return tail;
+        }
+
+        @Override
+        public Node<E> next(Node<E> node) {
+            return node.next;
+        }
+
+        @Override
+        public Node<E> prev(Node<E> node) {
+            return node.prev;
+        }
+
+        @Override
+        public boolean matches(Node<E> node, Object o) {
+            return o == null ? node.element == null : o.equals(node.element);
+        }
+    };
+
+    public SemaphorizedLinkedList() {
+        this(false);
+    }
+
+    /**
+     * @param readMostly whether get, getFirst, getLast and toArray read a
+     *        snapshot array rebuilt after changes, which makes them O(1) at
+     *        the cost of a semaphore acquisition on every change
+     */
+    public SemaphorizedLinkedList(boolean readMostly) {
+        this.snapshotSemaphore = readMostly ? new Semaphore(SNAPSHOT_PERMITS, true) : null;
+    }
+
+    /**
+     * Uses the given search for indexOf, lastIndexOf and contains, or the
+     * sequential scan when it is null.
+     */
+    public void setParallelSearch(ParallelSearch search) {
+        this.search = search;
+    }
+
+    public Handle<E> insertFirst(E element) {
         headSemaphore.acquireUninterruptibly();
 
         final Node<E> oldHead = this.head;
@@ -48,8 +163,9 @@ public class SemaphorizedLinkedList<E> {
         Semaphore oldHeadSemaphore = oldHead != null ? oldHead.semaphore : tailSemaphore;
         oldHeadSemaphore.acquireUninterruptibly();
 
-        final Node<E> newHead = new Node<>(null, element, oldHead);
+        final Node<E> newHead = new Node<>(this, null, element, oldHead);
 
+        beginChange();
         this.head = newHead;
 
         if (oldHead == null) {
@@ -59,20 +175,36 @@ public class SemaphorizedLinkedList<E> {
         }
 
         size++;
+        endChange();
 
         oldHeadSemaphore.release();
         headSemaphore.release();
+
+        return newHead;
     }
 
-    public void insertLast(E element) {
-        final Node<E> oldTail = this.tail;
+    public Handle<E> insertLast(E element) {
+        Node<E> oldTail;
+        Semaphore oldTailSemaphore;
+        while (true) {
+            oldTail = this.tail;
 
-        Semaphore oldTailSemaphore = oldTail != null ? oldTail.semaphore : headSemaphore;
-        oldTailSemaphore.acquireUninterruptibly();
-        tailSemaphore.acquireUninterruptibly();
+            oldTailSemaphore = oldTail != null ? oldTail.semaphore : headSemaphore;
+            oldTailSemaphore.acquireUninterruptibly();
+            tailSemaphore.acquireUninterruptibly();
 
-        final Node<E> newTail = new Node<>(oldTail, element, null);
+            if (this.tail == oldTail) {
+                break;
+            }
+
+            // the tail was removed before its semaphore was acquired
+            tailSemaphore.release();
+            oldTailSemaphore.release();
+        }
 
+        final Node<E> newTail = new Node<>(this, oldTail, element, null);
+
+        beginChange();
         this.tail = newTail;
 
         if (oldTail == null) {
@@ -82,48 +214,274 @@ public class SemaphorizedLinkedList<E> {
         }
 
         size++;
+        endChange();
 
         tailSemaphore.release();
         oldTailSemaphore.release();
+
+        return newTail;
     }
 
-    public void insertAt(E element, int index) {
+    public Handle<E> insertAt(E element, int index) {
         checkPositionIndex(index);
 
-        if (index == size) {
-            insertLast(element);
+        while (true) {
+            if (index >= size) {
+                return insertLast(element);
+            }
+
+            final Node<E> succ = node(index);
+            final Node<E> newNode = succ != null ? insertBefore(element, succ) : null;
+            if (newNode != null) {
+                return newNode;
+            }
+
+            // the node at the index was removed, the index is resolved again
+        }
+    }
+
+    /**
+     * Inserts the element right after the node of the handle, acquiring only
+     * the semaphores of that node and its successor (or tailSemaphore).
+     *
+     * @throws IllegalStateException if the node was removed
+     */
+    public Handle<E> insertAfter(Handle<E> handle, E element) {
+        final Node<E> pred = node(handle);
+
+        Node<E> succ;
+        Semaphore succSemaphore;
+        while (true) {
+            succ = pred.next;
+
+            succSemaphore = succ != null ? succ.semaphore : tailSemaphore;
+            pred.semaphore.acquireUninterruptibly();
+            succSemaphore.acquireUninterruptibly();
+
+            if (pred.removed) {
+                succSemaphore.release();
+                pred.semaphore.release();
+                throw new IllegalStateException("Node was removed");
+            }
+
+            if (pred.next == succ) {
+                break;
+            }
+
+            // an element was inserted before the semaphores were acquired
+            succSemaphore.release();
+            pred.semaphore.release();
+        }
+
+        final Node<E> newNode = new Node<>(this, pred, element, succ);
+
+        beginChange();
+        pred.next = newNode;
+        if (succ == null) {
+            this.tail = newNode;
         } else {
-            insertBefore(element, node(index));
+            succ.prev = newNode;
         }
+
+        size++;
+        endChange();
+
+        succSemaphore.release();
+        pred.semaphore.release();
+
+        return newNode;
+    }
+
+    /**
+     * Inserts the element right before the node of the handle, acquiring
+     * only the semaphores of its predecessor (or headSemaphore) and that node.
+     *
+     * @throws IllegalStateException if the node was removed
+     */
+    public Handle<E> insertBefore(Handle<E> handle, E element) {
+        final Node<E> newNode = insertBefore(element, node(handle));
+        if (newNode == null) {
+            throw new IllegalStateException("Node was removed");
+        }
+        return newNode;
     }
 
+    /**
+     * Removes the node of the handle, acquiring only the semaphores of its
+     * predecessor (or headSemaphore), of the node itself and of its successor
+     * (or tailSemaphore).
+     *
+     * @throws IllegalStateException if the node was already removed
+     */
+    public E remove(Handle<E> handle) {
+        return remove(node(handle));
+    }
+
+    /**
+     * @return the first element, or null if the list is empty
+     */
     public E removeFirst() {
-        return remove(head);
+        while (true) {
+            final Node<E> first = this.head;
+            if (first == null) {
+                return null;
+            }
+            if (unlink(first)) {
+                return take(first);
+            }
+
+            // another thread removed it first
+        }
     }
 
+    /**
+     * @return the last element, or null if the list is empty
+     */
     public E removeLast() {
-        return remove(tail);
+        while (true) {
+            final Node<E> last = this.tail;
+            if (last == null) {
+                return null;
+            }
+            if (unlink(last)) {
+                return take(last);
+            }
+
+            // another thread removed it first
+        }
+    }
+
+    /**
+     * Removes up to n elements from the head, holding headSemaphore for the
+     * whole batch. Each element is still unlinked under the semaphores of its
+     * own step and decrements size on its own, so the batch only saves
+     * acquiring headSemaphore again for every element.
+     *
+     * @return the removed elements, in the order removeFirst() would have
+     *         returned them
+     */
+    public List<E> removeFirst(int n) {
+        checkCount(n);
+
+        final List<E> elements = new ArrayList<>(Math.min(n, size));
+        drain(detachFirst(n, null), elements, true);
+        return elements;
+    }
+
+    /**
+     * Removes up to n elements from the tail, one at a time. This acquires
+     * the same semaphores and updates size as often as n calls to
+     * removeLast(); it only saves the calls themselves.
+     *
+     * @return the removed elements, in the order removeLast() would have
+     *         returned them
+     */
+    public List<E> removeLast(int n) {
+        checkCount(n);
+
+        final List<E> elements = new ArrayList<>(Math.min(n, size));
+        drain(detachLast(n), elements, false);
+        return elements;
+    }
+
+    /**
+     * Removes up to max elements from the head, holding headSemaphore for the
+     * whole batch, and adds them to the given collection. As in
+     * removeFirst(int), each element is still unlinked and counted on its own.
+     *
+     * @return the number of elements transferred
+     */
+    public int drainTo(Collection<? super E> c, int max) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+
+        return max > 0 ? drain(detachFirst(max, null), c, true) : 0;
+    }
+
+    /**
+     * Removes the longest prefix of elements accepted by the filter, holding
+     * headSemaphore for the whole batch. The filter is called while
+     * headSemaphore is held.
+     *
+     * @param c the collection receiving the removed elements, or null to
+     *        discard them
+     * @return the number of elements removed
+     */
+    int drainWhile(Collection<? super E> c, Filter<? super E> filter) {
+        return drain(detachFirst(Integer.MAX_VALUE, filter), c, true);
     }
 
+    /**
+     * @return the element at the index, or null if the index is out of range
+     */
     public E removeAt(int index) {
-        return remove(node(index));
+        while (true) {
+            if (index < 0 || index >= size) {
+                return null;
+            }
+
+            final Node<E> node = node(index);
+            if (node != null && unlink(node)) {
+                return take(node);
+            }
+
+            // the node at the index was removed, the index is resolved again
+        }
     }
 
     public E getFirst() {
+        if (snapshotSemaphore != null) {
+            final Object[] elements = snapshot();
+            if (elements.length == 0) {
+                throw new NoSuchElementException();
+            }
+            return elementAt(elements, 0);
+        }
+
         final Node<E> f = head;
+        if (f == null) {
+            throw new NoSuchElementException();
+        }
         return f.element;
     }
 
     public E getLast() {
+        if (snapshotSemaphore != null) {
+            final Object[] elements = snapshot();
+            if (elements.length == 0) {
+                throw new NoSuchElementException();
+            }
+            return elementAt(elements, elements.length - 1);
+        }
+
         final Node<E> l = tail;
+        if (l == null) {
+            throw new NoSuchElementException();
+        }
         return l.element;
     }
 
     public E get(int index) {
+        if (snapshotSemaphore != null) {
+            return elementAt(snapshot(), index);
+        }
+
         final Node<E> node = node(index);
         return node.element;
     }
 
+    /**
+     * @return the elements from the head to the tail
+     */
+    public Object[] toArray() {
+        if (snapshotSemaphore != null) {
+            return snapshot().clone();
+        }
+
+        return copyElements();
+    }
+
     private void checkPositionIndex(int index) {
         if (!isPositionIndex(index)) {
             throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
@@ -134,15 +492,37 @@ public class SemaphorizedLinkedList<E> {
         return index >= 0 && index <= size;
     }
 
-    private void insertBefore(E element, Node<E> succ) {
-        final Node<E> pred = succ.prev;
+    /**
+     * @return the new node, or null if succ was removed
+     */
+    private Node<E> insertBefore(E element, Node<E> succ) {
+        Node<E> pred;
+        Semaphore predSemaphore;
+        while (true) {
+            pred = succ.prev;
+
+            predSemaphore = pred != null ? pred.semaphore : headSemaphore;
+            predSemaphore.acquireUninterruptibly();
+            succ.semaphore.acquireUninterruptibly();
+
+            if (succ.removed) {
+                succ.semaphore.release();
+                predSemaphore.release();
+                return null;
+            }
 
-        Semaphore predSemaphore = pred != null ? pred.semaphore : headSemaphore;
-        predSemaphore.acquireUninterruptibly();
-        succ.semaphore.acquireUninterruptibly();
+            if (succ.prev == pred) {
+                break;
+            }
+
+            // an element was inserted before the semaphores were acquired
+            succ.semaphore.release();
+            predSemaphore.release();
+        }
 
-        final Node<E> newNode = new Node<>(pred, element, succ);
+        final Node<E> newNode = new Node<>(this, pred, element, succ);
 
+        beginChange();
         succ.prev = newNode;
         if (pred == null) {
             this.head = newNode;
@@ -151,9 +531,22 @@ public class SemaphorizedLinkedList<E> {
         }
 
         size++;
+        endChange();
 
         succ.semaphore.release();
         predSemaphore.release();
+
+        return newNode;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<E> node(Handle<E> handle) {
+        if (!(handle instanceof Node) || ((Node<?>) handle).list != this) {
+            // a node of another list would corrupt both lists
+            throw new IllegalArgumentException("Handle: " + handle);
+        }
+
+        return (Node<E>) handle;
     }
 
     private Node<E> node(int index) {
@@ -175,16 +568,293 @@ public class SemaphorizedLinkedList<E> {
         return node;
     }
 
+    /**
+     * Must be called while holding the semaphores of a change, right before
+     * making it.
+     */
+    private void beginChange() {
+        if (snapshotSemaphore != null) {
+            snapshotSemaphore.acquireUninterruptibly();
+        }
+    }
+
+    /**
+     * Invalidates the snapshot once the change is made.
+     */
+    private void endChange() {
+        if (snapshotSemaphore != null) {
+            modCount.incrementAndGet();
+            snapshotSemaphore.release();
+        }
+    }
+
+    /**
+     * Returns the current snapshot, rebuilding it if the list changed since
+     * it was taken. Concurrent readers wait for a single rebuild.
+     *
+     * @return the elements, which must not be modified
+     */
+    private Object[] snapshot() {
+        Snapshot s = snapshot;
+        if (s != null && s.modCount == modCount.get()) {
+            return s.elements;
+        }
+
+        rebuildSemaphore.acquireUninterruptibly();
+        try {
+            s = snapshot;
+            if (s == null || s.modCount != modCount.get()) {
+                snapshotSemaphore.acquireUninterruptibly(SNAPSHOT_PERMITS);
+                try {
+                    s = new Snapshot(copyElements(), modCount.get());
+                } finally {
+                    // an OutOfMemoryError in the copy must not block every change
+                    snapshotSemaphore.release(SNAPSHOT_PERMITS);
+                }
+
+                snapshot = s;
+            }
+        } finally {
+            rebuildSemaphore.release();
+        }
+
+        return s.elements;
+    }
+
+    private Object[] copyElements() {
+        final List<E> elements = new ArrayList<>(size);
+        for (Node<E> x = head; x != null; x = x.next) {
+            elements.add(x.element);
+        }
+        return elements.toArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(Object[] elements, int index) {
+        if (index < 0 || index >= elements.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.length);
+        }
+        return (E) elements[index];
+    }
+
+    private void checkCount(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Count: " + n);
+        }
+    }
+
+    /**
+     * Unlinks up to n nodes accepted by the filter (or any nodes, if it is
+     * null) from the head, one at a time, holding headSemaphore for the whole
+     * batch and the semaphores of each node and of its successor (or
+     * tailSemaphore) while it is unlinked. Like any removal, each step holds
+     * the semaphore of the node it unlinks, so it conflicts with a batch from
+     * the tail and with the removal of the node or of its successor.
+     *
+     * @return the first unlinked node, or null if none was, chained to the
+     *         others by next
+     */
+    private Node<E> detachFirst(int n, Filter<? super E> filter) {
+        if (n == 0) {
+            return null;
+        }
+
+        headSemaphore.acquireUninterruptibly();
+
+        Node<E> first = null;
+        Node<E> last = null;
+        int count = 0;
+        while (count < n) {
+            final Node<E> node = this.head;
+            if (node == null || (filter != null && !filter.accept(node.element))) {
+                break;
+            }
+
+            final Node<E> next = node.next;
+            final Semaphore nextSemaphore = next != null ? next.semaphore : tailSemaphore;
+            node.semaphore.acquireUninterruptibly();
+            nextSemaphore.acquireUninterruptibly();
+
+            if (node.next != next) {
+                // the successor changed before the semaphores were acquired
+                nextSemaphore.release();
+                node.semaphore.release();
+                continue;
+            }
+
+            beginChange();
+            this.head = next;
+            if (next == null) {
+                this.tail = null;
+            } else {
+                next.prev = null;
+            }
+
+            node.removed = true;
+            size--;
+            endChange();
+
+            nextSemaphore.release();
+            node.semaphore.release();
+
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            count++;
+        }
+
+        if (last != null) {
+            last.next = null;
+        }
+
+        headSemaphore.release();
+
+        return first;
+    }
+
+    /**
+     * Unlinks up to n nodes from the tail, one at a time, holding the
+     * predecessor semaphore (or headSemaphore), the semaphore of the node and
+     * tailSemaphore while it is unlinked. tailSemaphore is always acquired last, so it
+     * cannot be held for the whole batch, and elements appended meanwhile may
+     * be part of it.
+     *
+     * @return the last unlinked node, or null if none was, chained to the
+     *         others by prev
+     */
+    private Node<E> detachLast(int n) {
+        Node<E> first = null;
+        Node<E> last = null;
+        int count = 0;
+        while (count < n) {
+            final Node<E> node = this.tail;
+            if (node == null) {
+                break;
+            }
+
+            final Node<E> prev = node.prev;
+
+            Semaphore prevSemaphore = prev != null ? prev.semaphore : headSemaphore;
+            prevSemaphore.acquireUninterruptibly();
+            node.semaphore.acquireUninterruptibly();
+            tailSemaphore.acquireUninterruptibly();
+
+            if (this.tail != node || node.prev != prev) {
+                // the tail moved before the semaphores were acquired
+                tailSemaphore.release();
+                node.semaphore.release();
+                prevSemaphore.release();
+                continue;
+            }
+
+            beginChange();
+            this.tail = prev;
+            if (prev == null) {
+                this.head = null;
+            } else {
+                prev.next = null;
+            }
+
+            node.removed = true;
+            size--;
+            endChange();
+
+            tailSemaphore.release();
+            node.semaphore.release();
+            prevSemaphore.release();
+
+            if (first == null) {
+                last = node;
+            } else {
+                first.prev = node;
+            }
+            first = node;
+            count++;
+        }
+
+        if (first != null) {
+            first.prev = null;
+        }
+        return last;
+    }
+
+    /**
+     * Moves the elements of an unlinked chain into the given collection,
+     * following next pointers when forward and prev pointers otherwise.
+     */
+    private int drain(Node<E> node, Collection<? super E> c, boolean forward) {
+        int count = 0;
+        while (node != null) {
+            final Node<E> following = forward ? node.next : node.prev;
+
+            if (c != null) {
+                c.add(node.element);
+            }
+            node.element = null;
+            node.next = null;
+            node.prev = null;
+
+            node = following;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Removes the node of a handle.
+     *
+     * @throws IllegalStateException if the node was already removed
+     */
     private E remove(Node<E> node) {
-        final E element = node.element;
-        final Node<E> next = node.next;
-        final Node<E> prev = node.prev;
+        if (!unlink(node)) {
+            throw new IllegalStateException("Node was removed");
+        }
+        return take(node);
+    }
 
-        Semaphore prevSemaphore = prev != null ? prev.semaphore : headSemaphore;
-        Semaphore nextSemaphore = next != null ? next.semaphore : tailSemaphore;
-        prevSemaphore.acquireUninterruptibly();
-        nextSemaphore.acquireUninterruptibly();
+    /**
+     * Unlinks the node, acquiring the semaphores of its predecessor (or
+     * headSemaphore), of the node itself and of its successor (or
+     * tailSemaphore). The element is left for {@link #take}.
+     *
+     * @return false if the node was already removed
+     */
+    private boolean unlink(Node<E> node) {
+        Node<E> next;
+        Node<E> prev;
+        Semaphore prevSemaphore;
+        Semaphore nextSemaphore;
+        while (true) {
+            next = node.next;
+            prev = node.prev;
+
+            prevSemaphore = prev != null ? prev.semaphore : headSemaphore;
+            nextSemaphore = next != null ? next.semaphore : tailSemaphore;
+            prevSemaphore.acquireUninterruptibly();
+            node.semaphore.acquireUninterruptibly();
+            nextSemaphore.acquireUninterruptibly();
+
+            if (node.removed) {
+                nextSemaphore.release();
+                node.semaphore.release();
+                prevSemaphore.release();
+                return false;
+            }
 
+            if (node.prev == prev && node.next == next) {
+                break;
+            }
+
+            // a neighbour changed before the semaphores were acquired
+            nextSemaphore.release();
+            node.semaphore.release();
+            prevSemaphore.release();
+        }
+
+        beginChange();
         if (prev == null) {
             this.head = next;
         } else {
@@ -199,16 +869,84 @@ public class SemaphorizedLinkedList<E> {
             node.next = null;
         }
 
-        node.element = null;
+        node.removed = true;
         size--;
+        endChange();
 
         nextSemaphore.release();
+        node.semaphore.release();
         prevSemaphore.release();
 
+        return true;
+    }
+
+    /**
+     * Returns the element of a node unlinked by this thread and clears it.
+     */
+    private E take(Node<E> node) {
+        final E element = node.element;
+        node.element = null;
         return element;
     }
 
     public int size() {
         return size;
     }
+
+    public boolean contains(Object o) {
+        final ParallelSearch s = search;
+        if (s != null) {
+            return s.contains(chain, o, size);
+        }
+
+        return indexOf(o) != -1;
+    }
+
+    public int indexOf(Object o) {
+        final ParallelSearch s = search;
+        if (s != null) {
+            return s.indexOf(chain, o, size);
+        }
+
+        int index = 0;
+        if (o == null) {
+            for (Node<E> x = head; x != null; x = x.next) {
+                if (x.element == null)
+                    return index;
+                index++;
+            }
+        } else {
+            for (Node<E> x = head; x != null; x = x.next) {
+                if (o.equals(x.element))
+                    return index;
+                index++;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(Object o) {
+        final ParallelSearch s = search;
+        if (s != null) {
+            return s.lastIndexOf(chain, o, size);
+        }
+
+        // stops after size nodes, as elements prepended since size was read
+        // would have negative indexes
+        int index = size;
+        if (o == null) {
+            for (Node<E> x = tail; x != null && index > 0; x = x.prev) {
+                index--;
+                if (x.element == null)
+                    return index;
+            }
+        } else {
+            for (Node<E> x = tail; x != null && index > 0; x = x.prev) {
+                index--;
+                if (o.equals(x.element))
+                    return index;
+            }
+        }
+        return -1;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,321 @@
+package concurrent.list;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A linked list kept sorted by a comparator, protected by synchronized
+ * monitors on its nodes.
+ *
+ * <p>
+ * Every node is linked on the base level and on a random number of index
+ * levels above it, so the insertion point is found in O(log n) expected
+ * steps. Equal elements are kept in insertion order.
+ *
+ * <p>
+ * Whenever you make a change in an element:
+ * <ol>
+ * <li>Find the predecessor and successor on every level of the node without
+ * locking;</li>
+ * <li>Acquire the predecessor locks, from the base level up;</li>
+ * <li>Check that no predecessor was removed and that each one still links to
+ * the expected successor, otherwise release the locks and start over;</li>
+ * <li>Make the change;</li>
+ * <li>Release the predecessor locks.</li>
+ * </ol>
+ * Locks are always acquired from the tail towards the head, which keeps the
+ * list free of deadlocks. A removed node is flagged before it is unlinked, so
+ * no other thread links a node to it.
+ *
+ * @author Raphael Negrisoli Batista
+ *
+ * @param <E>
+ */
+public class SortedConcurrentLinkedList<E> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Comparator<? super E> comparator;
+    private final Node<E> head = new Node<>(null, MAX_LEVEL);
+    private final AtomicInteger size = new AtomicInteger();
+
+    private static class Node<E> {
+        final E element;
+        final AtomicReferenceArray<Node<E>> next;
+        volatile boolean linked;
+        volatile boolean removed;
+
+        Node(E element, int levels) {
+            this.element = element;
+            this.next = new AtomicReferenceArray<>(levels);
+        }
+
+        int levels() {
+            return next.length();
+        }
+
+        Node<E> next(int level) {
+            return next.get(level);
+        }
+
+        boolean isValid() {
+            return linked && !removed;
+        }
+    }
+
+    public SortedConcurrentLinkedList() {
+        this(null);
+    }
+
+    /**
+     * @param comparator the ordering of the elements, or null for their
+     *        natural ordering
+     */
+    public SortedConcurrentLinkedList(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Inserts the element after every element that is less than or equal to
+     * it.
+     */
+    public void insert(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+
+        final int levels = randomLevels();
+        final Node<E>[] preds = newLevels();
+        final Node<E>[] succs = newLevels();
+
+        while (true) {
+            findInsertion(element, preds, succs);
+
+            final Node<E> newNode = new Node<>(element, levels);
+            if (link(newNode, preds, succs, 0)) {
+                size.incrementAndGet();
+                return;
+            }
+
+            // a neighbour is being removed, give its thread a chance to unlink it
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Removes the smallest element.
+     *
+     * @return the removed element, or null if the list is empty
+     */
+    public E pollFirst() {
+        final Node<E>[] preds = newLevels();
+
+        while (true) {
+            Node<E> victim = head.next(0);
+            while (victim != null && victim.removed) {
+                victim = victim.next(0);
+            }
+
+            if (victim == null) {
+                return null;
+            }
+
+            if (!victim.linked) {
+                // still being linked on its index levels
+                Thread.yield();
+                continue;
+            }
+
+            synchronized (victim) {
+                if (victim.removed) {
+                    continue;
+                }
+                victim.removed = true;
+            }
+
+            findPredecessors(victim, preds);
+            while (!unlink(victim, preds, 0)) {
+                // a predecessor is being removed, give its thread a chance to unlink it
+                Thread.yield();
+                findPredecessors(victim, preds);
+            }
+
+            size.decrementAndGet();
+            return victim.element;
+        }
+    }
+
+    /**
+     * @return the smallest element, or null if the list is empty
+     */
+    public E peekFirst() {
+        for (Node<E> x = head.next(0); x != null; x = x.next(0)) {
+            if (x.isValid()) {
+                return x.element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the smallest element greater than or equal to the given one, or
+     *         null if there is none
+     */
+    public E ceiling(E element) {
+        Node<E> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<E> curr = pred.next(level);
+            while (curr != null && compare(curr.element, element) < 0) {
+                pred = curr;
+                curr = pred.next(level);
+            }
+        }
+
+        for (Node<E> x = pred.next(0); x != null; x = x.next(0)) {
+            if (x.isValid()) {
+                return x.element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the greatest element less than or equal to the given one, or
+     *         null if there is none
+     */
+    public E floor(E element) {
+        Node<E> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<E> curr = pred.next(level);
+            while (curr != null && compare(curr.element, element) <= 0) {
+                // the lower levels only resume from valid nodes, so the base
+                // level visits every node after the last valid one
+                if (curr.isValid()) {
+                    pred = curr;
+                }
+                curr = curr.next(level);
+            }
+        }
+
+        return pred != head ? pred.element : null;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Fills, on every level, the last node less than or equal to the element
+     * and the node following it.
+     */
+    private void findInsertion(E element, Node<E>[] preds, Node<E>[] succs) {
+        Node<E> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<E> curr = pred.next(level);
+            while (curr != null && compare(curr.element, element) <= 0) {
+                pred = curr;
+                curr = pred.next(level);
+            }
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+    }
+
+    /**
+     * Fills, on every level of the node, the node linking to it.
+     */
+    private void findPredecessors(Node<E> node, Node<E>[] preds) {
+        Node<E> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            if (level < node.levels()) {
+                // may run past the end from an unlinked node, then unlink fails and retries
+                Node<E> curr = pred.next(level);
+                while (curr != null && curr != node) {
+                    pred = curr;
+                    curr = pred.next(level);
+                }
+            } else {
+                // the node is not on this level, just skip the smaller ones
+                Node<E> curr = pred.next(level);
+                while (curr != null && compare(curr.element, node.element) < 0) {
+                    pred = curr;
+                    curr = pred.next(level);
+                }
+            }
+            preds[level] = pred;
+        }
+    }
+
+    /**
+     * Locks the predecessors from the base level up, validates them and links
+     * the node once every level is locked.
+     */
+    private boolean link(Node<E> node, Node<E>[] preds, Node<E>[] succs, int level) {
+        final Node<E> pred = preds[level];
+        final Node<E> succ = succs[level];
+
+        synchronized (pred) {
+            if (pred.removed || (succ != null && succ.removed) || pred.next(level) != succ) {
+                return false;
+            }
+
+            if (level + 1 < node.levels()) {
+                return link(node, preds, succs, level + 1);
+            }
+
+            for (int i = 0; i < node.levels(); i++) {
+                node.next.set(i, succs[i]);
+            }
+            for (int i = 0; i < node.levels(); i++) {
+                preds[i].next.set(i, node);
+            }
+            node.linked = true;
+            return true;
+        }
+    }
+
+    /**
+     * Locks the predecessors from the base level up, validates them and
+     * unlinks the node once every level is locked.
+     */
+    private boolean unlink(Node<E> node, Node<E>[] preds, int level) {
+        final Node<E> pred = preds[level];
+
+        synchronized (pred) {
+            if (pred.removed || pred.next(level) != node) {
+                return false;
+            }
+
+            if (level + 1 < node.levels()) {
+                return unlink(node, preds, level + 1);
+            }
+
+            for (int i = node.levels() - 1; i >= 0; i--) {
+                preds[i].next.set(i, node.next(i));
+            }
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E e1, E e2) {
+        return comparator != null ? comparator.compare(e1, e2) : ((Comparable<? super E>) e1).compareTo(e2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E>[] newLevels() {
+        return (Node<E>[]) new Node<?>[MAX_LEVEL];
+    }
+
+    private static int randomLevels() {
+        final int bits = ThreadLocalRandom.current().nextInt();
+        final int levels = Integer.numberOfTrailingZeros(bits) + 1;
+        return Math.min(levels, MAX_LEVEL);
+    }
+}
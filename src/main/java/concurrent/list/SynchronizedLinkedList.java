@@ -1,10 +1,16 @@
 package concurrent.list;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A doubly linked list protected by synchronized monitors.
@@ -19,6 +25,24 @@ import java.util.ListIterator;
  * <li>Release the predecessor lock (or headLock);</li>
  * </ol>
  *
+ * <p>
+ * Removing an element also acquires its own lock, between the predecessor
+ * and successor locks. Otherwise the removals of two adjacent elements would
+ * acquire disjoint locks and both unlink their element from a stale
+ * neighbour.
+ *
+ * <p>
+ * Within a list, locks are always acquired from the head towards the tail.
+ * Operations spanning two lists acquire every lock of the list created first
+ * before the locks of the other one, so they never deadlock.
+ *
+ * <p>
+ * In read-mostly mode, get, getFirst, getLast and toArray read an immutable
+ * array of the elements instead of walking the nodes. The array is rebuilt
+ * by the first read after a change, so a burst of changes costs a single
+ * rebuild. Every change holds the read lock of snapshotLock, and the rebuild
+ * holds its write lock, so the nodes never change while they are copied.
+ *
  * @author Raphael Negrisoli Batista
  *
  * @param <E>
@@ -30,20 +54,116 @@ public class SynchronizedLinkedList<E> implements List<E> {
     private Object headLock = new Object();
     private Object tailLock = new Object();
     private int size = 0;
+    private ParallelSearch search = null;
+
+    private static final AtomicLong ids = new AtomicLong();
+    private final long id = ids.incrementAndGet();
+
+    // null unless in read-mostly mode
+    private final ReadWriteLock snapshotLock;
+    private final Object rebuildLock = new Object();
+    private final AtomicLong modCount = new AtomicLong();
+    private volatile Snapshot snapshot = null;
+
+    /**
+     * A change made once a set of locks is held.
+     */
+    private interface Change {
+        /**
+         * @return false if the list changed before the locks were acquired
+         */
+        boolean apply();
+    }
 
-    private static class Node<E> {
+    private static class Node<E> implements Handle<E> {
+        final SynchronizedLinkedList<E> list;
         E element;
         Node<E> next;
         Node<E> prev;
+        volatile boolean removed;
 
-        Node(Node<E> prev, E element, Node<E> next) {
+        Node(SynchronizedLinkedList<E> list, Node<E> prev, E element, Node<E> next) {
+            this.list = list;
             this.element = element;
             this.next = next;
             this.prev = prev;
         }
+
+        @Override
+        public E get() {
+            final E e = element;
+            checkNotRemoved(this);
+            return e;
+        }
+
+        @Override
+        public boolean isRemoved() {
+            return removed;
+        }
+    }
+
+    /**
+     * The elements of the list when modCount had the given value.
+     */
+    private static class Snapshot {
+        final Object[] elements;
+        final long modCount;
+
+        Snapshot(Object[] elements, long modCount) {
+            this.elements = elements;
+            this.modCount = modCount;
+        }
+    }
+
+    private final ParallelSearch.Chain<Node<E>> chain = new ParallelSearch.Chain<Node<E>>() {
+        @Override
+        public Node<E> first() {
+            return head;
+        }
+
+        @Override
+        public Node<E> last() {
+            return tail;
+        }
+
+        @Override
+        public Node<E> next(Node<E> node) {
+            return node.next;
+        }
+
+        @Override
+        public Node<E> prev(Node<E> node) {
+            return node.prev;
+        }
+
+        @Override
+        public boolean matches(Node<E> node, Object o) {
+            return o == null ? node.element == null : o.equals(node.element);
+        }
+    };
+
+    public SynchronizedLinkedList() {
+        this(false);
+    }
+
+    /**
+     * @param readMostly whether get, getFirst, getLast and toArray read a
+     *        snapshot array rebuilt after changes, which makes them O(1) at
+     *        the cost of a lock on every change
+     */
+    public SynchronizedLinkedList(boolean readMostly) {
+        this.snapshotLock = readMostly ? new ReentrantReadWriteLock() : null;
+    }
+
+    /**
+     * Uses the given search for indexOf, lastIndexOf and contains, or the
+     * sequential scan when it is null.
+     */
+    public void setParallelSearch(ParallelSearch search) {
+        this.search = search;
     }
 
-    public void insertFirst(E element) {
+    public Handle<E> insertFirst(E element) {
         synchronized (headLock) {
 
             final Node<E> oldHead = this.head;
@@ -51,8 +171,9 @@ public class SynchronizedLinkedList<E> implements List<E> {
             Object oldHeadLock = oldHead != null ? oldHead : tailLock;
             synchronized (oldHeadLock) {
 
-                final Node<E> newHead = new Node<>(null, element, oldHead);
+                final Node<E> newHead = new Node<>(this, null, element, oldHead);
 
+                beginChange();
                 this.head = newHead;
 
                 if (oldHead == null) {
@@ -62,19 +183,32 @@ public class SynchronizedLinkedList<E> implements List<E> {
                 }
 
                 size++;
+                endChange();
+                return newHead;
             }
         }
     }
 
-    public void insertLast(E element) {
-        final Node<E> oldTail = this.tail;
+    public Handle<E> insertLast(E element) {
+        Node<E> newTail;
+        do {
+            newTail = insertLast(element, this.tail);
+        } while (newTail == null);
+        return newTail;
+    }
 
+    private Node<E> insertLast(E element, Node<E> oldTail) {
         Object oldTailSemaphore = oldTail != null ? oldTail : headLock;
         synchronized (oldTailSemaphore) {
             synchronized (tailLock) {
+                if (this.tail != oldTail) {
+                    // the tail was removed before its lock was acquired
+                    return null;
+                }
 
-                final Node<E> newTail = new Node<>(oldTail, element, null);
+                final Node<E> newTail = new Node<>(this, oldTail, element, null);
 
+                beginChange();
                 this.tail = newTail;
 
                 if (oldTail == null) {
@@ -84,44 +218,393 @@ public class SynchronizedLinkedList<E> implements List<E> {
                 }
 
                 size++;
+                endChange();
+                return newTail;
             }
         }
     }
 
-    public void insertAt(E element, int index) {
+    public Handle<E> insertAt(E element, int index) {
         checkPositionIndex(index);
 
-        if (index == size) {
-            insertLast(element);
-        } else {
-            insertBefore(element, node(index));
+        while (true) {
+            if (index >= size) {
+                return insertLast(element);
+            }
+
+            final Node<E> succ = node(index);
+            final Node<E> newNode = succ != null ? insertBefore(element, succ) : null;
+            if (newNode != null) {
+                return newNode;
+            }
+
+            // the node at the index was removed, the index is resolved again
+        }
+    }
+
+    /**
+     * Inserts the element right after the node of the handle, locking only
+     * that node and its successor (or tailLock).
+     *
+     * @throws IllegalStateException if the node was removed
+     */
+    public Handle<E> insertAfter(Handle<E> handle, E element) {
+        final Node<E> pred = node(handle);
+
+        while (true) {
+            final Node<E> succ = pred.next;
+
+            Object succSemaphore = succ != null ? succ : tailLock;
+            synchronized (pred) {
+                synchronized (succSemaphore) {
+                    checkNotRemoved(pred);
+                    if (pred.next != succ) {
+                        // an element was inserted before the locks were acquired
+                        continue;
+                    }
+
+                    final Node<E> newNode = new Node<>(this, pred, element, succ);
+
+                    beginChange();
+                    pred.next = newNode;
+                    if (succ == null) {
+                        this.tail = newNode;
+                    } else {
+                        succ.prev = newNode;
+                    }
+
+                    size++;
+                    endChange();
+                    return newNode;
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the element right before the node of the handle, locking only
+     * its predecessor (or headLock) and that node.
+     *
+     * @throws IllegalStateException if the node was removed
+     */
+    public Handle<E> insertBefore(Handle<E> handle, E element) {
+        final Node<E> newNode = insertBefore(element, node(handle));
+        if (newNode == null) {
+            throw new IllegalStateException("Node was removed");
+        }
+        return newNode;
+    }
+
+    /**
+     * Removes the node of the handle, locking only its predecessor (or
+     * headLock), the node itself and its successor (or tailLock).
+     *
+     * @throws IllegalStateException if the node was already removed
+     */
+    public E remove(Handle<E> handle) {
+        return remove(node(handle));
+    }
+
+    /**
+     * Atomically removes the first element and inserts it as the last
+     * element of the other list. Only headLock, the lock of the first element
+     * and the lock of its successor are held on this list, and the lock of
+     * its last element (or headLock) and tailLock on the other.
+     *
+     * @return false if this list is empty
+     */
+    public boolean moveFirstTo(final SynchronizedLinkedList<E> other) {
+        checkOther(other);
+
+        while (true) {
+            final Node<E> first = this.head;
+            if (first == null) {
+                return false;
+            }
+
+            final Node<E> next = first.next;
+            final Node<E> oldTail = other.tail;
+
+            final Object[] locks = locks(other,
+                    new Object[] { headLock, first, next != null ? next : tailLock },
+                    new Object[] { oldTail != null ? oldTail : other.headLock, other.tailLock });
+
+            final boolean moved = synchronize(locks, 0, new Change() {
+                @Override
+                public boolean apply() {
+                    if (head != first || first.next != next || other.tail != oldTail) {
+                        return false;
+                    }
+
+                    final Node<E> newTail = new Node<>(other, oldTail, first.element, null);
+
+                    beginChange(other);
+                    head = next;
+                    if (next == null) {
+                        tail = null;
+                    } else {
+                        next.prev = null;
+                        first.next = null;
+                    }
+                    first.removed = true;
+                    first.element = null;
+                    size--;
+
+                    other.tail = newTail;
+                    if (oldTail == null) {
+                        other.head = newTail;
+                    } else {
+                        oldTail.next = newTail;
+                    }
+                    other.size++;
+                    endChange(other);
+
+                    return true;
+                }
+            });
+
+            if (moved) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically moves every element to the end of the other list. This list
+     * is walked from the head holding headLock, locking each node and its
+     * successor as in an interior change, and the lock of the last element
+     * (or headLock) and tailLock are held on the other.
+     *
+     * <p>
+     * The elements are copied into new nodes, so the handles of the moved
+     * elements are removed. Splicing the nodes themselves would move their
+     * locks to the other list, where a thread that read them from this list
+     * before the move would acquire them out of order and could deadlock.
+     *
+     * @return the number of elements moved
+     */
+    public int transferAll(final SynchronizedLinkedList<E> other) {
+        checkOther(other);
+
+        if (id < other.id) {
+            // the locks of this list come first, so the other list is locked
+            // at the end of the walk
+            synchronized (headLock) {
+                return transferAll(other, true);
+            }
+        }
+
+        final int[] moved = new int[1];
+        while (true) {
+            final Node<E> oldTail = other.tail;
+
+            final Object[] locks = { oldTail != null ? oldTail : other.headLock, other.tailLock, headLock };
+
+            final boolean transferred = synchronize(locks, 0, new Change() {
+                @Override
+                public boolean apply() {
+                    if (other.tail != oldTail) {
+                        return false;
+                    }
+
+                    moved[0] = transferAll(other, false);
+                    return true;
+                }
+            });
+
+            if (transferred) {
+                return moved[0];
+            }
         }
     }
 
+    /**
+     * Atomically exchanges the first element of this list with the first
+     * element of the other one. On each list, only headLock and the
+     * successor lock of the first element are held.
+     *
+     * @return false if either list is empty
+     */
+    public boolean swapFirst(final SynchronizedLinkedList<E> other) {
+        checkOther(other);
+
+        while (true) {
+            final Node<E> mine = this.head;
+            final Node<E> theirs = other.head;
+            if (mine == null || theirs == null) {
+                return false;
+            }
+
+            final Node<E> myNext = mine.next;
+            final Node<E> theirNext = theirs.next;
+
+            final Object[] locks = locks(other,
+                    new Object[] { headLock, myNext != null ? myNext : tailLock },
+                    new Object[] { other.headLock, theirNext != null ? theirNext : other.tailLock });
+
+            final boolean swapped = synchronize(locks, 0, new Change() {
+                @Override
+                public boolean apply() {
+                    if (head != mine || mine.next != myNext || other.head != theirs || theirs.next != theirNext) {
+                        return false;
+                    }
+
+                    beginChange(other);
+                    final E element = mine.element;
+                    mine.element = theirs.element;
+                    theirs.element = element;
+                    endChange(other);
+
+                    return true;
+                }
+            });
+
+            if (swapped) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the first element, or null if the list is empty
+     */
     public E removeFirst() {
-        return remove(head);
+        while (true) {
+            final Node<E> first = this.head;
+            if (first == null) {
+                return null;
+            }
+            if (unlink(first)) {
+                return take(first);
+            }
+
+            // another thread removed it first
+        }
     }
 
+    /**
+     * @return the last element, or null if the list is empty
+     */
     public E removeLast() {
-        return remove(tail);
+        while (true) {
+            final Node<E> last = this.tail;
+            if (last == null) {
+                return null;
+            }
+            if (unlink(last)) {
+                return take(last);
+            }
+
+            // another thread removed it first
+        }
+    }
+
+    /**
+     * Removes up to n elements from the head, holding headLock for the whole
+     * batch. Each element is still unlinked under the locks of its own step
+     * and decrements size on its own, so the batch only saves acquiring
+     * headLock again for every element.
+     *
+     * @return the removed elements, in the order removeFirst() would have
+     *         returned them
+     */
+    public List<E> removeFirst(int n) {
+        checkCount(n);
+
+        final List<E> elements = new ArrayList<>(Math.min(n, size));
+        drain(detachFirst(n), elements, true);
+        return elements;
     }
 
+    /**
+     * Removes up to n elements from the tail, one at a time. This acquires
+     * the same locks and updates size as often as n calls to removeLast();
+     * it only saves the calls themselves.
+     *
+     * @return the removed elements, in the order removeLast() would have
+     *         returned them
+     */
+    public List<E> removeLast(int n) {
+        checkCount(n);
+
+        final List<E> elements = new ArrayList<>(Math.min(n, size));
+        drain(detachLast(n), elements, false);
+        return elements;
+    }
+
+    /**
+     * Removes up to max elements from the head, holding headLock for the whole
+     * batch, and adds them to the given collection. As in removeFirst(int),
+     * each element is still unlinked and counted on its own.
+     *
+     * @return the number of elements transferred
+     */
+    public int drainTo(Collection<? super E> c, int max) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+
+        return max > 0 ? drain(detachFirst(max), c, true) : 0;
+    }
+
+    /**
+     * @return the element at the index, or null if the index is out of range
+     */
     public E removeAt(int index) {
-        Node<E> node = node(index);
-        return node != null ? remove(node) : null;
+        while (true) {
+            if (index < 0 || index >= size) {
+                return null;
+            }
+
+            final Node<E> node = node(index);
+            if (node != null && unlink(node)) {
+                return take(node);
+            }
+
+            // the node at the index was removed, the index is resolved again
+        }
     }
 
     public E getFirst() {
+        if (snapshotLock != null) {
+            final Object[] elements = snapshot();
+            if (elements.length == 0) {
+                throw new NoSuchElementException();
+            }
+            return elementAt(elements, 0);
+        }
+
         final Node<E> f = head;
+        if (f == null) {
+            throw new NoSuchElementException();
+        }
         return f.element;
     }
 
     public E getLast() {
+        if (snapshotLock != null) {
+            final Object[] elements = snapshot();
+            if (elements.length == 0) {
+                throw new NoSuchElementException();
+            }
+            return elementAt(elements, elements.length - 1);
+        }
+
         final Node<E> l = tail;
+        if (l == null) {
+            throw new NoSuchElementException();
+        }
         return l.element;
     }
 
     public E get(int index) {
+        if (snapshotLock != null) {
+            return elementAt(snapshot(), index);
+        }
+
         final Node<E> node = node(index);
         return node.element;
     }
@@ -136,25 +619,177 @@ public class SynchronizedLinkedList<E> implements List<E> {
         return index >= 0 && index <= size;
     }
 
-    private void insertBefore(E element, Node<E> succ) {
-        final Node<E> pred = succ.prev;
+    /**
+     * @return the new node, or null if succ was removed
+     */
+    private Node<E> insertBefore(E element, Node<E> succ) {
+        while (true) {
+            final Node<E> pred = succ.prev;
+
+            Object predSemaphore = pred != null ? pred : headLock;
+            synchronized (predSemaphore) {
+                synchronized (succ) {
+                    if (succ.removed) {
+                        return null;
+                    }
+                    if (succ.prev != pred) {
+                        // an element was inserted before the locks were acquired
+                        continue;
+                    }
+
+                    final Node<E> newNode = new Node<>(this, pred, element, succ);
+
+                    beginChange();
+                    succ.prev = newNode;
+                    if (pred == null) {
+                        this.head = newNode;
+                    } else {
+                        pred.next = newNode;
+                    }
+
+                    size++;
+                    endChange();
+                    return newNode;
+                }
+            }
+        }
+    }
 
-        Object predSemaphore = pred != null ? pred : headLock;
-        synchronized (predSemaphore) {
-            synchronized (succ) {
+    @SuppressWarnings("unchecked")
+    private Node<E> node(Handle<E> handle) {
+        if (!(handle instanceof Node) || ((Node<?>) handle).list != this) {
+            // a node of another list would corrupt both lists
+            throw new IllegalArgumentException("Handle: " + handle);
+        }
 
-                final Node<E> newNode = new Node<>(pred, element, succ);
+        return (Node<E>) handle;
+    }
 
-                succ.prev = newNode;
-                if (pred == null) {
-                    this.head = newNode;
-                } else {
-                    pred.next = newNode;
-                }
+    private void checkOther(SynchronizedLinkedList<E> other) {
+        if (other == null) {
+            throw new NullPointerException();
+        }
+        if (other == this) {
+            throw new IllegalArgumentException();
+        }
+    }
 
-                size++;
+    /**
+     * Puts the locks of the list created first before the locks of the other.
+     */
+    private Object[] locks(SynchronizedLinkedList<E> other, Object[] mine, Object[] theirs) {
+        final Object[] first = id < other.id ? mine : theirs;
+        final Object[] second = id < other.id ? theirs : mine;
+
+        final Object[] locks = new Object[first.length + second.length];
+        System.arraycopy(first, 0, locks, 0, first.length);
+        System.arraycopy(second, 0, locks, first.length, second.length);
+        return locks;
+    }
+
+    /**
+     * Acquires the locks from the given index on, in order, and applies the
+     * change while all of them are held.
+     */
+    private static boolean synchronize(Object[] locks, int index, Change change) {
+        if (index == locks.length) {
+            return change.apply();
+        }
 
+        synchronized (locks[index]) {
+            return synchronize(locks, index + 1, change);
+        }
+    }
+
+    /**
+     * Must be called while holding the locks of a change, right before
+     * making it.
+     */
+    private void beginChange() {
+        if (snapshotLock != null) {
+            snapshotLock.readLock().lock();
+        }
+    }
+
+    /**
+     * Invalidates the snapshot once the change is made.
+     */
+    private void endChange() {
+        if (snapshotLock != null) {
+            modCount.incrementAndGet();
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Begins a change on both lists, on the list created first before the
+     * other.
+     */
+    private void beginChange(SynchronizedLinkedList<E> other) {
+        if (id < other.id) {
+            beginChange();
+            other.beginChange();
+        } else {
+            other.beginChange();
+            beginChange();
+        }
+    }
+
+    private void endChange(SynchronizedLinkedList<E> other) {
+        other.endChange();
+        endChange();
+    }
+
+    /**
+     * Returns the current snapshot, rebuilding it if the list changed since
+     * it was taken. Concurrent readers wait for a single rebuild.
+     *
+     * @return the elements, which must not be modified
+     */
+    private Object[] snapshot() {
+        Snapshot s = snapshot;
+        if (s != null && s.modCount == modCount.get()) {
+            return s.elements;
+        }
+
+        synchronized (rebuildLock) {
+            s = snapshot;
+            if (s != null && s.modCount == modCount.get()) {
+                return s.elements;
+            }
+
+            snapshotLock.writeLock().lock();
+            try {
+                s = new Snapshot(copyElements(), modCount.get());
+            } finally {
+                // an OutOfMemoryError in the copy must not block every change
+                snapshotLock.writeLock().unlock();
             }
+
+            snapshot = s;
+            return s.elements;
+        }
+    }
+
+    private Object[] copyElements() {
+        final List<E> elements = new ArrayList<>(size);
+        for (Node<E> x = head; x != null; x = x.next) {
+            elements.add(x.element);
+        }
+        return elements.toArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(Object[] elements, int index) {
+        if (index < 0 || index >= elements.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.length);
+        }
+        return (E) elements[index];
+    }
+
+    private static void checkNotRemoved(Node<?> node) {
+        if (node.removed) {
+            throw new IllegalStateException("Node was removed");
         }
     }
 
@@ -177,35 +812,337 @@ public class SynchronizedLinkedList<E> implements List<E> {
         return node;
     }
 
-    private E remove(Node<E> node) {
-        final E element = node.element;
-        final Node<E> next = node.next;
-        final Node<E> prev = node.prev;
+    private void checkCount(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Count: " + n);
+        }
+    }
+
+    /**
+     * Unlinks up to n nodes from the head, one at a time, holding headLock for
+     * the whole batch and the lock of each node and of its successor (or
+     * tailLock) while it is unlinked. Like any removal, each step holds the
+     * lock of the node it unlinks, so it conflicts with a batch from the tail
+     * and with the removal of the node or of its successor.
+     *
+     * @return the first unlinked node, or null if none was, chained to the
+     *         others by next
+     */
+    private Node<E> detachFirst(int n) {
+        if (n == 0) {
+            return null;
+        }
+
+        synchronized (headLock) {
+            Node<E> first = null;
+            Node<E> last = null;
+            int count = 0;
+            while (count < n) {
+                final Node<E> node = this.head;
+                if (node == null) {
+                    break;
+                }
 
-        Object prevSemaphore = prev != null ? prev : headLock;
-        Object nextSemaphore = next != null ? next: tailLock;
-        synchronized (prevSemaphore) {
-            synchronized (nextSemaphore) {
+                final Node<E> next = node.next;
+
+                Object nextSemaphore = next != null ? next : tailLock;
+                synchronized (node) {
+                    synchronized (nextSemaphore) {
+                        if (node.next != next) {
+                            // the successor changed before the locks were acquired
+                            continue;
+                        }
+
+                        beginChange();
+                        this.head = next;
+                        if (next == null) {
+                            this.tail = null;
+                        } else {
+                            next.prev = null;
+                        }
+
+                        node.removed = true;
+                        size--;
+                        endChange();
+                    }
+                }
 
-                if (prev == null) {
-                    this.head = next;
+                if (last == null) {
+                    first = node;
                 } else {
-                    prev.next = next;
-                    node.prev = null;
+                    last.next = node;
                 }
+                last = node;
+                count++;
+            }
+
+            if (last != null) {
+                last.next = null;
+            }
+            return first;
+        }
+    }
+
+    /**
+     * Unlinks up to n nodes from the tail, one at a time, holding the
+     * predecessor lock (or headLock), the lock of the node and tailLock while
+     * it is unlinked. tailLock is always acquired last, so it cannot be held for the
+     * whole batch, and elements appended meanwhile may be part of it. The batch
+     * stops at a node that is removed but still linked, as transferAll leaves
+     * the nodes it already copied until it empties the list.
+     *
+     * @return the last unlinked node, or null if none was, chained to the
+     *         others by prev
+     */
+    private Node<E> detachLast(int n) {
+        Node<E> first = null;
+        Node<E> last = null;
+        int count = 0;
+        while (count < n) {
+            final Node<E> node = this.tail;
+            if (node == null) {
+                break;
+            }
 
+            final Node<E> prev = node.prev;
+
+            Object prevSemaphore = prev != null ? prev : headLock;
+            synchronized (prevSemaphore) {
+                synchronized (node) {
+                    synchronized (tailLock) {
+                        if (node.removed) {
+                            // copied by transferAll, which empties the list
+                            break;
+                        }
+                        if (this.tail != node || node.prev != prev) {
+                            // the tail moved before the locks were acquired
+                            continue;
+                        }
+
+                        beginChange();
+                        this.tail = prev;
+                        if (prev == null) {
+                            this.head = null;
+                        } else {
+                            prev.next = null;
+                        }
+
+                        node.removed = true;
+                        size--;
+                        endChange();
+                    }
+                }
+            }
+
+            if (first == null) {
+                last = node;
+            } else {
+                first.prev = node;
+            }
+            first = node;
+            count++;
+        }
+
+        if (first != null) {
+            first.prev = null;
+        }
+        return last;
+    }
+
+    /**
+     * Copies the elements of this list, holding headLock. Every step locks the
+     * last node copied (or headLock) and its successor, then marks the
+     * successor removed, so a change on a node either completes before the
+     * walk reaches it or fails once the walk passed it. The walk ends holding
+     * the last node and tailLock, where the copies are appended to the other
+     * list and this list is emptied.
+     *
+     * @param lockOther whether the locks of the other list still have to be
+     *        acquired, after the locks of this list
+     */
+    private int transferAll(final SynchronizedLinkedList<E> other, boolean lockOther) {
+        Node<E> first = null;
+        Node<E> last = null;
+        int count = 0;
+
+        Node<E> x = null;
+        while (true) {
+            final Node<E> next;
+
+            Object xSemaphore = x != null ? x : headLock;
+            synchronized (xSemaphore) {
+                next = x != null ? x.next : this.head;
                 if (next == null) {
-                    this.tail = prev;
+                    if (count == 0) {
+                        return 0;
+                    }
+
+                    synchronized (tailLock) {
+                        append(other, first, last, count, lockOther);
+                        return count;
+                    }
+                }
+
+                synchronized (next) {
+                    next.removed = true;
+
+                    final Node<E> copy = new Node<>(other, last, next.element, null);
+                    if (last == null) {
+                        first = copy;
+                    } else {
+                        last.next = copy;
+                    }
+                    last = copy;
+                    count++;
+                }
+            }
+
+            x = next;
+        }
+    }
+
+    /**
+     * Appends the copied chain to the other list and empties this one, while
+     * holding the locks of both ends of this list.
+     */
+    private void append(final SynchronizedLinkedList<E> other, final Node<E> first, final Node<E> last,
+            final int count, boolean lockOther) {
+        final Change change = new Change() {
+            @Override
+            public boolean apply() {
+                final Node<E> oldTail = other.tail;
+
+                beginChange(other);
+                first.prev = oldTail;
+                if (oldTail == null) {
+                    other.head = first;
                 } else {
-                    next.prev = prev;
-                    node.next = null;
+                    oldTail.next = first;
+                }
+                other.tail = last;
+                other.size += count;
+
+                head = null;
+                tail = null;
+                size = 0;
+                endChange(other);
+
+                return true;
+            }
+        };
+
+        if (!lockOther) {
+            change.apply();
+            return;
+        }
+
+        while (true) {
+            final Node<E> oldTail = other.tail;
+
+            final Object[] locks = { oldTail != null ? oldTail : other.headLock, other.tailLock };
+
+            final boolean appended = synchronize(locks, 0, new Change() {
+                @Override
+                public boolean apply() {
+                    return other.tail == oldTail && change.apply();
                 }
+            });
+
+            if (appended) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the elements of an unlinked chain into the given collection,
+     * following next pointers when forward and prev pointers otherwise.
+     */
+    private int drain(Node<E> node, Collection<? super E> c, boolean forward) {
+        int count = 0;
+        while (node != null) {
+            final Node<E> following = forward ? node.next : node.prev;
+
+            c.add(node.element);
+            node.element = null;
+            node.next = null;
+            node.prev = null;
+
+            node = following;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Removes the node of a handle.
+     *
+     * @throws IllegalStateException if the node was already removed
+     */
+    private E remove(Node<E> node) {
+        if (!unlink(node)) {
+            throw new IllegalStateException("Node was removed");
+        }
+        return take(node);
+    }
 
-                node.element = null;
-                size--;
+    /**
+     * Unlinks the node, locking its predecessor (or headLock), the node
+     * itself and its successor (or tailLock). The element is left for
+     * {@link #take}.
+     *
+     * @return false if the node was already removed
+     */
+    private boolean unlink(Node<E> node) {
+        while (true) {
+            final Node<E> next = node.next;
+            final Node<E> prev = node.prev;
+
+            Object prevSemaphore = prev != null ? prev : headLock;
+            Object nextSemaphore = next != null ? next: tailLock;
+            synchronized (prevSemaphore) {
+                synchronized (node) {
+                    synchronized (nextSemaphore) {
+                        if (node.removed) {
+                            return false;
+                        }
+                        if (node.prev != prev || node.next != next) {
+                            // a neighbour changed before the locks were acquired
+                            continue;
+                        }
+
+                        beginChange();
+                        if (prev == null) {
+                            this.head = next;
+                        } else {
+                            prev.next = next;
+                            node.prev = null;
+                        }
+
+                        if (next == null) {
+                            this.tail = prev;
+                        } else {
+                            next.prev = prev;
+                            node.next = null;
+                        }
+
+                        node.removed = true;
+                        size--;
+                        endChange();
+
+                        return true;
+                    }
+                }
             }
         }
+    }
 
+    /**
+     * Returns the element of a node unlinked by this thread and clears it.
+     */
+    private E take(Node<E> node) {
+        final E element = node.element;
+        node.element = null;
         return element;
     }
 
@@ -220,6 +1157,11 @@ public class SynchronizedLinkedList<E> implements List<E> {
 
     @Override
     public boolean contains(Object o) {
+        final ParallelSearch s = search;
+        if (s != null) {
+            return s.contains(chain, o, size);
+        }
+
         return indexOf(o) != -1;
     }
 
@@ -231,14 +1173,26 @@ public class SynchronizedLinkedList<E> implements List<E> {
 
     @Override
     public Object[] toArray() {
-        // TODO Auto-generated method stub
-        return null;
+        if (snapshotLock != null) {
+            return snapshot().clone();
+        }
+
+        return copyElements();
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T[] toArray(T[] a) {
-        // TODO Auto-generated method stub
-        return null;
+        final Object[] elements = snapshotLock != null ? snapshot() : copyElements();
+        if (a.length < elements.length) {
+            return (T[]) Arrays.copyOf(elements, elements.length, a.getClass());
+        }
+
+        System.arraycopy(elements, 0, a, 0, elements.length);
+        if (a.length > elements.length) {
+            a[elements.length] = null;
+        }
+        return a;
     }
 
     @Override
@@ -311,6 +1265,11 @@ public class SynchronizedLinkedList<E> implements List<E> {
 
     @Override
     public int indexOf(Object o) {
+        final ParallelSearch s = search;
+        if (s != null) {
+            return s.indexOf(chain, o, size);
+        }
+
         int index = 0;
         if (o == null) {
             for (Node<E> x = head; x != null; x = x.next) {
@@ -330,8 +1289,28 @@ public class SynchronizedLinkedList<E> implements List<E> {
 
     @Override
     public int lastIndexOf(Object o) {
-        // TODO Auto-generated method stub
-        return 0;
+        final ParallelSearch s = search;
+        if (s != null) {
+            return s.lastIndexOf(chain, o, size);
+        }
+
+        // stops after size nodes, as elements prepended since size was read
+        // would have negative indexes
+        int index = size;
+        if (o == null) {
+            for (Node<E> x = tail; x != null && index > 0; x = x.prev) {
+                index--;
+                if (x.element == null)
+                    return index;
+            }
+        } else {
+            for (Node<E> x = tail; x != null && index > 0; x = x.prev) {
+                index--;
+                if (o.equals(x.element))
+                    return index;
+            }
+        }
+        return -1;
     }
 
     @Override
@@ -0,0 +1,193 @@
+package concurrent.list;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A linked deque owned by one thread, from which other threads steal.
+ *
+ * <p>
+ * The owner pushes and pops at the tail without locking. Thieves take the
+ * oldest elements from the head, one or a batch at a time, while holding
+ * headLock, which keeps them from competing with each other. Every element
+ * has a position: bottom is the position of the next push and top the
+ * position of the next steal, so the deque holds the positions in
+ * [top, bottom).
+ *
+ * <p>
+ * The owner and the thieves only compete for the last element. Both then
+ * try to advance top by compare-and-set, and only one of them wins:
+ * <ol>
+ * <li>The owner publishes the decremented bottom, then reads top;</li>
+ * <li>A thief reads top, then bottom, then advances top;</li>
+ * <li>Whoever sees the other's write backs off.</li>
+ * </ol>
+ * The node at position top is never replaced by the owner, so thieves can
+ * follow the next links from the last node they took.
+ *
+ * @author Raphael Negrisoli Batista
+ *
+ * @param <E>
+ */
+public class WorkStealingLinkedDeque<E> {
+
+    private final Object headLock = new Object();
+    private final AtomicLong top = new AtomicLong();
+    private volatile long bottom = 0;
+
+    // owned by the owner thread
+    private Node<E> tail;
+
+    // guarded by headLock
+    private Node<E> head;
+    private long headIndex = -1;
+
+    private static class Node<E> {
+        E element;
+        Node<E> next;
+        Node<E> prev;
+
+        Node(Node<E> prev, E element) {
+            this.element = element;
+            this.prev = prev;
+        }
+    }
+
+    public WorkStealingLinkedDeque() {
+        final Node<E> anchor = new Node<>(null, null);
+        this.tail = anchor;
+        this.head = anchor;
+    }
+
+    /**
+     * Inserts the element at the tail. Must only be called by the owner.
+     */
+    public void push(E element) {
+        final Node<E> oldTail = this.tail;
+        final Node<E> newTail = new Node<>(oldTail, element);
+
+        oldTail.next = newTail;
+        this.tail = newTail;
+
+        // publishes the node to the thieves
+        bottom = bottom + 1;
+    }
+
+    /**
+     * Removes the element at the tail. Must only be called by the owner.
+     *
+     * @return the newest element, or null if the deque is empty
+     */
+    public E pop() {
+        final long b = bottom - 1;
+        bottom = b;
+
+        final long t = top.get();
+        if (t > b) {
+            // empty
+            bottom = t;
+            return null;
+        }
+
+        final Node<E> node = this.tail;
+        final E element = node.element;
+
+        if (t < b) {
+            // the thieves cannot reach this position
+            this.tail = node.prev;
+            node.prev = null;
+            node.element = null;
+            return element;
+        }
+
+        // last element, the node stays as the anchor of the next push
+        final boolean won = top.compareAndSet(t, t + 1);
+        bottom = t + 1;
+        if (!won) {
+            return null;
+        }
+
+        node.element = null;
+        return element;
+    }
+
+    /**
+     * Removes the element at the head.
+     *
+     * @return the oldest element, or null if the deque is empty or the owner
+     *         took the last element
+     */
+    public E steal() {
+        synchronized (headLock) {
+            return stealOne();
+        }
+    }
+
+    /**
+     * Removes up to max elements from the head while holding headLock once,
+     * and adds them to the given collection, oldest first.
+     *
+     * @return the number of elements transferred
+     */
+    public int stealTo(Collection<? super E> c, int max) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+
+        int count = 0;
+        synchronized (headLock) {
+            while (count < max) {
+                final E element = stealOne();
+                if (element == null) {
+                    break;
+                }
+
+                c.add(element);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of elements, which may be stale while other threads
+     *         change the deque
+     */
+    public int size() {
+        final long size = bottom - top.get();
+        return size > 0 ? (int) Math.min(size, Integer.MAX_VALUE) : 0;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Must be called while holding headLock.
+     */
+    private E stealOne() {
+        final long t = top.get();
+        final long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+
+        // positions before top were taken and their nodes no longer change
+        Node<E> node = this.head;
+        while (headIndex < t) {
+            node = node.next;
+            headIndex++;
+        }
+        this.head = node;
+
+        final E element = node.element;
+        if (!top.compareAndSet(t, t + 1)) {
+            // the owner took the last element
+            return null;
+        }
+
+        node.prev = null;
+        node.element = null;
+        return element;
+    }
+}
@@ -0,0 +1,336 @@
+package concurrent.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fork/join task pool where every worker owns a
+ * {@link WorkStealingLinkedDeque}.
+ *
+ * <p>
+ * A worker runs its newest tasks first, popping them from its own deque,
+ * then the tasks submitted from outside the pool, then a batch of the oldest
+ * tasks of another worker. A worker waiting in {@link Task#join()} keeps
+ * running tasks until the joined one is done. Tasks still queued when the
+ * pool is shut down complete with a {@link RejectedExecutionException}.
+ *
+ * @author Raphael Negrisoli Batista
+ */
+public class WorkStealingPool implements Executor {
+
+    private static final int STEAL_BATCH = 8;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Worker[] workers;
+    private final SynchronizedLinkedList<Task<?>> submissions = new SynchronizedLinkedList<>();
+    private volatile boolean running = true;
+
+    /**
+     * A task that can fork subtasks and join them.
+     *
+     * @param <V> the result type
+     */
+    public abstract static class Task<V> {
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile boolean done;
+        private volatile boolean waiting;
+        private V result;
+        private Throwable failure;
+
+        protected abstract V compute();
+
+        /**
+         * Schedules the task on the deque of the current worker. Must be
+         * called from a task running in the pool.
+         */
+        public final Task<V> fork() {
+            final Thread thread = Thread.currentThread();
+            if (!(thread instanceof Worker)) {
+                throw new IllegalStateException("Not a pool worker: " + thread.getName());
+            }
+
+            ((Worker) thread).push(this);
+            return this;
+        }
+
+        /**
+         * Waits for the task, running other tasks of the pool meanwhile when
+         * called from a worker.
+         *
+         * @return the result of the task
+         */
+        public final V join() {
+            final Thread thread = Thread.currentThread();
+            if (thread instanceof Worker) {
+                ((Worker) thread).helpUntilDone(this);
+            } else {
+                awaitDone();
+            }
+
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            return result;
+        }
+
+        public final boolean isDone() {
+            return done;
+        }
+
+        final void run() {
+            // a task queued twice, or rejected by shutdown meanwhile, only
+            // completes once
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                result = compute();
+            } catch (Throwable t) {
+                failure = t;
+            }
+
+            complete();
+        }
+
+        /**
+         * Completes the task with a RejectedExecutionException, unless it was
+         * already started.
+         */
+        final void reject() {
+            if (started.compareAndSet(false, true)) {
+                failure = new RejectedExecutionException("Pool is shut down");
+                complete();
+            }
+        }
+
+        private void complete() {
+            done = true;
+            if (waiting) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        private void awaitDone() {
+            boolean interrupted = false;
+
+            synchronized (this) {
+                waiting = true;
+                while (!done) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class Worker extends Thread {
+        private final WorkStealingLinkedDeque<Task<?>> deque = new WorkStealingLinkedDeque<>();
+        private final List<Task<?>> stolen = new ArrayList<>(STEAL_BATCH);
+        private final int index;
+        private volatile boolean idle;
+
+        Worker(int index) {
+            super("work-stealing-" + index);
+            this.index = index;
+            setDaemon(true);
+        }
+
+        WorkStealingPool pool() {
+            return WorkStealingPool.this;
+        }
+
+        void push(Task<?> task) {
+            deque.push(task);
+            signalWork();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                final Task<?> task = next();
+                if (task != null) {
+                    task.run();
+                } else {
+                    idle = true;
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                    idle = false;
+                }
+            }
+
+            // the tasks forked by the last tasks run would never be taken
+            Task<?> task;
+            while ((task = deque.pop()) != null) {
+                task.reject();
+            }
+        }
+
+        void helpUntilDone(Task<?> joined) {
+            while (!joined.isDone()) {
+                final Task<?> task = next();
+                if (task != null) {
+                    task.run();
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+
+        private Task<?> next() {
+            Task<?> task = deque.pop();
+            if (task == null) {
+                task = poll();
+            }
+            if (task == null) {
+                task = steal();
+            }
+            return task;
+        }
+
+        private Task<?> poll() {
+            if (submissions.isEmpty()) {
+                return null;
+            }
+
+            final List<Task<?>> tasks = submissions.removeFirst(1);
+            return tasks.isEmpty() ? null : tasks.get(0);
+        }
+
+        /**
+         * Steals a batch of the oldest tasks of another worker, runs the
+         * first one and keeps the rest in its own deque.
+         */
+        private Task<?> steal() {
+            for (int i = 1; i < workers.length; i++) {
+                final Worker victim = workers[(index + i) % workers.length];
+                if (victim.deque.isEmpty()) {
+                    continue;
+                }
+
+                final int count = victim.deque.stealTo(stolen, Math.max(1, Math.min(STEAL_BATCH, victim.deque.size() / 2)));
+                if (count > 0) {
+                    for (int j = count - 1; j > 0; j--) {
+                        deque.push(stolen.get(j));
+                    }
+
+                    final Task<?> task = stolen.get(0);
+                    stolen.clear();
+                    return task;
+                }
+            }
+            return null;
+        }
+    }
+
+    public WorkStealingPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkStealingPool(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism: " + parallelism);
+        }
+
+        this.workers = new Worker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+
+        submit(new Task<Void>() {
+            @Override
+            protected Void compute() {
+                command.run();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Schedules the task, on the current worker's deque when called from the
+     * pool.
+     */
+    public <V> Task<V> submit(Task<V> task) {
+        if (!running) {
+            throw new RejectedExecutionException("Pool is shut down");
+        }
+
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof Worker && ((Worker) thread).pool() == this) {
+            return task.fork();
+        }
+
+        submissions.insertLast(task);
+        if (!running) {
+            // shut down after the check above, the task may be missed by
+            // the rejection in shutdown
+            rejectSubmissions();
+        }
+        signalWork();
+        return task;
+    }
+
+    /**
+     * Runs the task in the pool and waits for its result.
+     */
+    public <V> V invoke(Task<V> task) {
+        return submit(task).join();
+    }
+
+    /**
+     * Stops the workers once they finish their current task. Tasks not
+     * started yet are completed with a RejectedExecutionException, which
+     * join throws.
+     */
+    public void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        rejectSubmissions();
+    }
+
+    private void rejectSubmissions() {
+        List<Task<?>> tasks;
+        while (!(tasks = submissions.removeFirst(STEAL_BATCH)).isEmpty()) {
+            for (Task<?> task : tasks) {
+                task.reject();
+            }
+        }
+    }
+
+    private void signalWork() {
+        for (Worker worker : workers) {
+            if (worker.idle) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+}
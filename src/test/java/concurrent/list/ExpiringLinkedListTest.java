@@ -0,0 +1,140 @@
+package concurrent.list;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ExpiringLinkedListTest {
+
+    static class ManualClock implements ExpiringLinkedList.Clock {
+        volatile long millis = 0;
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        ManualClock clock = new ManualClock();
+        ExpiringLinkedList<Integer> list = new ExpiringLinkedList<>(100, TimeUnit.MILLISECONDS, clock);
+
+        list.insertLast(1);
+        clock.millis = 50;
+        list.insertLast(2);
+        list.insertLast(3);
+
+        assertEquals(0, list.expire());
+        assertEquals(3, list.size());
+
+        clock.millis = 100;
+        assertEquals(1, list.expire());
+        assertEquals(2, list.size());
+
+        clock.millis = 150;
+        assertEquals(2, list.expire());
+        assertEquals(0, list.size());
+        assertEquals(3, list.expiredCount());
+    }
+
+    @Test
+    public void testExpireOnInsert() throws Exception {
+        ManualClock clock = new ManualClock();
+        ExpiringLinkedList<Integer> list = new ExpiringLinkedList<>(100, TimeUnit.MILLISECONDS, clock);
+
+        for (int i = 0; i < 10; i++) {
+            clock.millis = i * 10;
+            list.insertLast(i);
+        }
+        assertEquals(10, list.size());
+
+        clock.millis = 125;
+        list.insertLast(10);
+
+        assertEquals(8, list.size());
+        assertEquals(3, list.expiredCount());
+    }
+
+    @Test
+    public void testRemoveSkipsExpired() throws Exception {
+        ManualClock clock = new ManualClock();
+        ExpiringLinkedList<Integer> list = new ExpiringLinkedList<>(100, TimeUnit.MILLISECONDS, clock);
+
+        list.insertLast(1);
+        clock.millis = 50;
+        list.insertLast(2);
+        list.insertLast(3);
+        list.insertLast(4);
+
+        clock.millis = 100;
+        assertEquals(new Integer(2), list.removeFirst());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, list.drainTo(drained, 10));
+        assertEquals(Arrays.asList(3, 4), drained);
+
+        assertNull(list.removeFirst());
+        assertEquals(1, list.expiredCount());
+    }
+
+    @Test
+    public void testSkipsExpiredOutOfOrder() throws Exception {
+        ManualClock clock = new ManualClock();
+        ExpiringLinkedList<Integer> list = new ExpiringLinkedList<>(100, TimeUnit.MILLISECONDS, clock);
+
+        // a producer that read the clock earlier appends after a later one
+        clock.millis = 100;
+        list.insertLast(1);
+        clock.millis = 50;
+        list.insertLast(2);
+        clock.millis = 120;
+        list.insertLast(3);
+        list.insertLast(4);
+
+        clock.millis = 160;
+        assertEquals(0, list.expire());
+        assertEquals(new Integer(1), list.removeFirst());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, list.drainTo(drained, 10));
+        assertEquals(Arrays.asList(3, 4), drained);
+        assertEquals(1, list.expiredCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedTtl() throws Exception {
+        new ExpiringLinkedList<Integer>(500, TimeUnit.MICROSECONDS);
+    }
+
+    @Test
+    public void testScheduleExpiry() throws Exception {
+        ManualClock clock = new ManualClock();
+        ExpiringLinkedList<Integer> list = new ExpiringLinkedList<>(100, TimeUnit.MILLISECONDS, clock);
+        for (int i = 0; i < 1000; i++) {
+            list.insertLast(i);
+        }
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            list.scheduleExpiry(executor, 1, TimeUnit.MILLISECONDS);
+            clock.millis = 100;
+
+            for (int i = 0; i < 100 && !list.isEmpty(); i++) {
+                Thread.sleep(10);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(list.isEmpty());
+        assertEquals(1000, list.expiredCount());
+    }
+}
@@ -0,0 +1,107 @@
+package concurrent.list;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class ParallelSearchTest {
+
+    /**
+     * Walks a list by index, so tests can hand the search a stale size.
+     */
+    static class IndexChain implements ParallelSearch.Chain<Integer> {
+        final List<Integer> elements = new ArrayList<>();
+
+        @Override
+        public Integer first() {
+            return elements.isEmpty() ? null : 0;
+        }
+
+        @Override
+        public Integer last() {
+            return elements.isEmpty() ? null : elements.size() - 1;
+        }
+
+        @Override
+        public Integer next(Integer node) {
+            return node + 1 < elements.size() ? node + 1 : null;
+        }
+
+        @Override
+        public Integer prev(Integer node) {
+            return node > 0 ? node - 1 : null;
+        }
+
+        @Override
+        public boolean matches(Integer node, Object o) {
+            return o.equals(elements.get(node));
+        }
+    }
+
+    @Test
+    public void testContainsAfterAppend() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelSearch search = new ParallelSearch(executor, 0);
+            IndexChain chain = new IndexChain();
+            for (int i = 0; i < 20; i++) {
+                chain.elements.add(i);
+            }
+
+            // the list had 10 elements when its size was read
+            for (int i = 0; i < 20; i++) {
+                assertTrue(search.contains(chain, i, 10));
+            }
+            assertFalse(search.contains(chain, 20, 10));
+            assertEquals(7, search.indexOf(chain, 7, 10));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLastIndexOfAfterPrepend() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            IndexChain chain = new IndexChain();
+            for (int i = 0; i < 20; i++) {
+                chain.elements.add(i);
+            }
+
+            // the list had 10 elements when its size was read
+            assertEquals(-1, new ParallelSearch(executor, 0).lastIndexOf(chain, 0, 10));
+            assertEquals(-1, new ParallelSearch(executor).lastIndexOf(chain, 0, 10));
+            assertEquals(8, new ParallelSearch(executor, 0).lastIndexOf(chain, 18, 10));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatchInFarHalf() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ParallelSearch search = new ParallelSearch(executor, 0);
+            IndexChain chain = new IndexChain();
+            for (int i = 0; i < 1000; i++) {
+                chain.elements.add(i % 10 == 0 ? i : -1);
+            }
+
+            assertEquals(900, search.indexOf(chain, 900, 1000));
+            assertEquals(100, search.lastIndexOf(chain, 100, 1000));
+            assertEquals(0, search.indexOf(chain, 0, 1000));
+            assertEquals(990, search.lastIndexOf(chain, 990, 1000));
+            assertEquals(1, search.indexOf(chain, -1, 1000));
+            assertEquals(999, search.lastIndexOf(chain, -1, 1000));
+            assertTrue(search.contains(chain, 990, 1000));
+            assertFalse(search.contains(chain, 5, 1000));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
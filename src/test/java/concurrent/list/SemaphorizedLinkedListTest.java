@@ -2,9 +2,18 @@ package concurrent.list;
 
 import static org.junit.Assert.*;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -71,6 +80,476 @@ public class SemaphorizedLinkedListTest {
         assertEquals(10000, list.size());
     }
 
+    @Test
+    public void testParallelSearch() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+            for (int i = 0; i < 1000; i++) {
+                list.insertLast(i % 100);
+            }
+            list.setParallelSearch(new ParallelSearch(executor, 0));
+
+            assertEquals(7, list.indexOf(7));
+            assertEquals(907, list.lastIndexOf(7));
+            assertEquals(99, list.indexOf(99));
+            assertEquals(999, list.lastIndexOf(99));
+            assertEquals(-1, list.indexOf(100));
+            assertEquals(-1, list.lastIndexOf(100));
+            assertTrue(list.contains(0));
+            assertTrue(list.contains(99));
+            assertFalse(list.contains(null));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLastIndexOf() throws Exception {
+        SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        list.insertLast(1);
+        list.insertLast(2);
+        list.insertLast(1);
+
+        assertEquals(0, list.indexOf(1));
+        assertEquals(2, list.lastIndexOf(1));
+        assertEquals(1, list.lastIndexOf(2));
+        assertEquals(-1, list.lastIndexOf(3));
+    }
+
+    @Test
+    public void testRemoveFirstN() throws Exception {
+        SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        for (int i = 0; i < 10; i++) {
+            list.insertLast(i);
+        }
+
+        assertEquals(Arrays.asList(0, 1, 2), list.removeFirst(3));
+        assertEquals(7, list.size());
+        assertEquals(new Integer(3), list.getFirst());
+
+        assertEquals(Arrays.asList(9, 8), list.removeLast(2));
+        assertEquals(5, list.size());
+        assertEquals(new Integer(7), list.getLast());
+
+        assertEquals(Arrays.asList(3, 4, 5, 6, 7), list.removeFirst(100));
+        assertEquals(0, list.size());
+        assertTrue(list.removeLast(1).isEmpty());
+
+        list.insertLast(1);
+        assertEquals(new Integer(1), list.getFirst());
+        assertEquals(new Integer(1), list.getLast());
+    }
+
+    @Test
+    public void testRemoveBothEndsConcurrency() throws Exception {
+        final SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        for (int i = 0; i < 100000; i++) {
+            list.insertLast(i);
+        }
+
+        final List<Integer> first = new ArrayList<>();
+        final List<Integer> last = new ArrayList<>();
+        Thread head = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                List<Integer> batch;
+                while (!(batch = list.removeFirst(300)).isEmpty()) {
+                    first.addAll(batch);
+                }
+            }
+        });
+        Thread tail = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                List<Integer> batch;
+                while (!(batch = list.removeLast(300)).isEmpty()) {
+                    last.addAll(batch);
+                }
+            }
+        });
+        head.start();
+        tail.start();
+        head.join(10000);
+        tail.join(10000);
+
+        assertEquals(0, list.size());
+        assertEquals(100000, first.size() + last.size());
+
+        boolean[] seen = new boolean[100000];
+        for (Integer element : first) {
+            assertFalse(seen[element]);
+            seen[element] = true;
+        }
+        for (Integer element : last) {
+            assertFalse(seen[element]);
+            seen[element] = true;
+        }
+    }
+
+    @Test
+    public void testDrainWhileRacingRemoveLast() throws Exception {
+        final SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        for (int i = 0; i < 2000; i++) {
+            list.insertLast(i);
+        }
+
+        final List<Integer> last = new ArrayList<>();
+        final Thread tail = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                last.addAll(list.removeLast(1200));
+            }
+        });
+
+        // removes from the tail while the head batch is in progress
+        final List<Integer> first = new ArrayList<>();
+        list.drainWhile(first, new SemaphorizedLinkedList.Filter<Integer>() {
+            @Override
+            public boolean accept(Integer element) {
+                if (element == 1000 && tail.getState() == Thread.State.NEW) {
+                    tail.start();
+                    try {
+                        tail.join(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return element <= 1000;
+            }
+        });
+        tail.join(5000);
+
+        assertEquals(0, list.size());
+        assertEquals(2000, first.size() + last.size());
+    }
+
+    @Test
+    public void testDrainTo() throws Exception {
+        SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        for (int i = 0; i < 5; i++) {
+            list.insertLast(i);
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(0, list.drainTo(drained, 0));
+        assertEquals(3, list.drainTo(drained, 3));
+        assertEquals(2, list.drainTo(drained, 3));
+        assertEquals(0, list.drainTo(drained, 3));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), drained);
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void testDrainToConcurrency() throws Exception {
+        final SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10000; i++) {
+                    list.insertLast(i);
+                }
+            }
+        });
+        producer.start();
+
+        List<Integer> drained = new ArrayList<>();
+        while (drained.size() < 10000) {
+            list.drainTo(drained, 16);
+        }
+        producer.join(1000);
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(new Integer(i), drained.get(i));
+        }
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void testRemoveFirstConcurrency() throws Exception {
+        final SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        for (int i = 0; i < 40000; i++) {
+            list.insertLast(i);
+        }
+
+        final boolean[] removed = new boolean[40000];
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final boolean fromHead = i % 2 == 0;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Integer element;
+                        while ((element = fromHead ? list.removeFirst() : list.removeLast()) != null) {
+                            synchronized (removed) {
+                                if (removed[element]) {
+                                    errors.incrementAndGet();
+                                }
+                                removed[element] = true;
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        assertEquals(0, errors.get());
+        assertEquals(0, list.size());
+        assertNull(list.removeFirst());
+        assertNull(list.removeLast());
+        synchronized (removed) {
+            for (boolean r : removed) {
+                assertTrue(r);
+            }
+        }
+    }
+
+    @Test
+    public void testHandles() throws Exception {
+        SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        Handle<Integer> two = list.insertLast(2);
+        Handle<Integer> one = list.insertBefore(two, 1);
+        Handle<Integer> three = list.insertAfter(two, 3);
+        list.insertBefore(one, 0);
+        list.insertAfter(three, 4);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(new Integer(i), list.get(i));
+        }
+        assertEquals(new Integer(2), two.get());
+
+        assertEquals(new Integer(2), list.remove(two));
+        assertTrue(two.isRemoved());
+        assertFalse(one.isRemoved());
+        assertEquals(4, list.size());
+        assertEquals(new Integer(3), list.get(2));
+
+        list.removeFirst(2);
+        assertTrue(one.isRemoved());
+        assertFalse(three.isRemoved());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRemovedHandle() throws Exception {
+        SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        Handle<Integer> handle = list.insertLast(1);
+        list.removeFirst();
+
+        list.insertAfter(handle, 2);
+    }
+
+    @Test
+    public void testHandleOfAnotherList() throws Exception {
+        SemaphorizedLinkedList<Integer> list0 = new SemaphorizedLinkedList<>();
+        SemaphorizedLinkedList<Integer> list1 = new SemaphorizedLinkedList<>();
+        Handle<Integer> handle = list0.insertLast(1);
+        list1.insertLast(2);
+
+        try {
+            list1.remove(handle);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            list1.insertAfter(handle, 3);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            list1.insertBefore(handle, 3);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertEquals(1, list0.size());
+        assertEquals(1, list1.size());
+        assertEquals(new Integer(1), handle.get());
+        assertEquals(new Integer(2), list1.getFirst());
+    }
+
+    @Test
+    public void testRemoveNeighbours() throws Exception {
+        final SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>(true);
+        final List<Handle<Integer>> handles = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            handles.add(list.insertLast(i));
+        }
+
+        // a change waits for a permit of the snapshot semaphore once it holds
+        // its node semaphores, right before it is made
+        Field field = SemaphorizedLinkedList.class.getDeclaredField("snapshotSemaphore");
+        field.setAccessible(true);
+        Semaphore snapshotSemaphore = (Semaphore) field.get(list);
+
+        snapshotSemaphore.acquireUninterruptibly(Integer.MAX_VALUE);
+        try {
+            Thread[] threads = new Thread[2];
+            for (int i = 0; i < threads.length; i++) {
+                final Handle<Integer> handle = handles.get(i + 1);
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        list.remove(handle);
+                    }
+                });
+                threads[i].start();
+            }
+
+            // one removal waits for the guard, the other for the node it
+            // shares with the first
+            for (Thread thread : threads) {
+                while (thread.getState() == Thread.State.NEW || thread.getState() == Thread.State.RUNNABLE) {
+                    Thread.sleep(1);
+                }
+            }
+        } finally {
+            snapshotSemaphore.release(Integer.MAX_VALUE);
+        }
+
+        for (Handle<Integer> handle : handles.subList(1, 3)) {
+            while (!handle.isRemoved()) {
+                Thread.sleep(1);
+            }
+        }
+        assertEquals(2, list.size());
+        assertArrayEquals(new Object[] { 0, 3 }, list.toArray());
+    }
+
+    @Test
+    public void testHandlesConcurrency() throws Exception {
+        final SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>();
+        final Handle<Integer> anchor = list.insertLast(-1);
+        Runnable inserter = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 1000; i++) {
+                    Handle<Integer> handle = i % 2 == 0 ? list.insertAfter(anchor, i) : list.insertBefore(anchor, i);
+                    if (i % 3 == 0) {
+                        list.remove(handle);
+                    }
+                }
+            }
+        };
+
+        Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(inserter);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(1000);
+        }
+
+        assertEquals(6661, list.size());
+    }
+
+    @Test
+    public void testReadMostly() throws Exception {
+        SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>(true);
+        for (int i = 0; i < 10; i++) {
+            list.insertLast(i);
+        }
+
+        assertEquals(new Integer(0), list.getFirst());
+        assertEquals(new Integer(9), list.getLast());
+        assertEquals(new Integer(5), list.get(5));
+
+        Object[] array = list.toArray();
+        assertArrayEquals(new Object[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, array);
+        array[0] = -1;
+        assertEquals(new Integer(0), list.get(0));
+
+        list.insertFirst(-1);
+        list.removeLast();
+        list.removeFirst(2);
+        assertEquals(new Integer(1), list.getFirst());
+        assertEquals(new Integer(8), list.getLast());
+        assertArrayEquals(new Object[] { 1, 2, 3, 4, 5, 6, 7, 8 }, list.toArray());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadMostlyIndex() throws Exception {
+        SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>(true);
+        list.insertLast(0);
+        list.get(1);
+    }
+
+    @Test
+    public void testEmptyEnds() throws Exception {
+        for (boolean readMostly : new boolean[] { false, true }) {
+            SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>(readMostly);
+            try {
+                list.getFirst();
+                fail();
+            } catch (NoSuchElementException e) {
+                // expected
+            }
+            try {
+                list.getLast();
+                fail();
+            } catch (NoSuchElementException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testReadMostlyConcurrency() throws Exception {
+        final SemaphorizedLinkedList<Integer> list = new SemaphorizedLinkedList<>(true);
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        Runnable reader = new Runnable() {
+            @Override
+            public void run() {
+                while (running.get()) {
+                    Object[] elements = list.toArray();
+                    for (int i = 1; i < elements.length; i++) {
+                        if ((Integer) elements[i] != (Integer) elements[i - 1] + 1) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    if (elements.length > 0 && list.get(0) < (Integer) elements[0]) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }
+        };
+
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(reader);
+            readers[i].start();
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            list.insertLast(i);
+            if (i >= 100) {
+                list.removeFirst();
+            }
+        }
+        running.set(false);
+        for (Thread thread : readers) {
+            thread.join(1000);
+        }
+
+        assertEquals(0, errors.get());
+        assertEquals(100, list.size());
+        assertEquals(new Integer(9900), list.getFirst());
+        assertEquals(new Integer(9999), list.getLast());
+    }
+
     @Test
     @Ignore
     public void testTime() throws Exception {
@@ -0,0 +1,131 @@
+package concurrent.list;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SortedConcurrentLinkedListTest {
+
+    @Test
+    public void testInsert() throws Exception {
+        SortedConcurrentLinkedList<Integer> list = new SortedConcurrentLinkedList<>();
+        list.insert(3);
+        list.insert(1);
+        list.insert(2);
+
+        assertEquals(3, list.size());
+        assertEquals(new Integer(1), list.peekFirst());
+        assertEquals(new Integer(1), list.pollFirst());
+        assertEquals(new Integer(2), list.pollFirst());
+        assertEquals(new Integer(3), list.pollFirst());
+        assertNull(list.pollFirst());
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testComparator() throws Exception {
+        SortedConcurrentLinkedList<Integer> list = new SortedConcurrentLinkedList<>(Collections.<Integer>reverseOrder());
+        for (int i = 0; i < 100; i++) {
+            list.insert(i);
+        }
+
+        for (int i = 99; i >= 0; i--) {
+            assertEquals(new Integer(i), list.pollFirst());
+        }
+    }
+
+    @Test
+    public void testCeilingAndFloor() throws Exception {
+        SortedConcurrentLinkedList<Integer> list = new SortedConcurrentLinkedList<>();
+        for (int i = 0; i < 100; i += 10) {
+            list.insert(i);
+        }
+
+        assertEquals(new Integer(0), list.ceiling(-5));
+        assertEquals(new Integer(20), list.ceiling(15));
+        assertEquals(new Integer(20), list.ceiling(20));
+        assertNull(list.ceiling(95));
+
+        assertNull(list.floor(-5));
+        assertEquals(new Integer(10), list.floor(15));
+        assertEquals(new Integer(20), list.floor(20));
+        assertEquals(new Integer(90), list.floor(95));
+    }
+
+    @Test
+    public void testInsertConcurrency() throws Exception {
+        final SortedConcurrentLinkedList<Integer> list = new SortedConcurrentLinkedList<>();
+        Runnable inserter = new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random();
+                for (int i = 0; i < 1000; i++) {
+                    list.insert(random.nextInt(100));
+                }
+            }
+        };
+
+        Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(inserter);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(1000);
+        }
+
+        assertEquals(10000, list.size());
+
+        int previous = Integer.MIN_VALUE;
+        for (int i = 0; i < 10000; i++) {
+            int element = list.pollFirst();
+            assertTrue(previous <= element);
+            previous = element;
+        }
+        assertNull(list.pollFirst());
+    }
+
+    @Test
+    public void testPollFirstConcurrency() throws Exception {
+        final SortedConcurrentLinkedList<Integer> list = new SortedConcurrentLinkedList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.insert(i);
+        }
+
+        final boolean[] polled = new boolean[10000];
+        final AtomicInteger duplicates = new AtomicInteger();
+        Runnable poller = new Runnable() {
+            @Override
+            public void run() {
+                Integer element;
+                while ((element = list.pollFirst()) != null) {
+                    synchronized (polled) {
+                        if (polled[element]) {
+                            duplicates.incrementAndGet();
+                        }
+                        polled[element] = true;
+                    }
+                }
+            }
+        };
+
+        Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(poller);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(1000);
+        }
+
+        assertEquals(0, duplicates.get());
+        assertEquals(0, list.size());
+        for (boolean p : polled) {
+            assertTrue(p);
+        }
+    }
+}
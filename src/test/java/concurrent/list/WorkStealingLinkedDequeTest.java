@@ -0,0 +1,115 @@
+package concurrent.list;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class WorkStealingLinkedDequeTest {
+
+    @Test
+    public void testPushPop() throws Exception {
+        WorkStealingLinkedDeque<Integer> deque = new WorkStealingLinkedDeque<>();
+        deque.push(1);
+        deque.push(2);
+        deque.push(3);
+
+        assertEquals(3, deque.size());
+        assertEquals(new Integer(3), deque.pop());
+        assertEquals(new Integer(2), deque.pop());
+        deque.push(4);
+        assertEquals(new Integer(4), deque.pop());
+        assertEquals(new Integer(1), deque.pop());
+        assertNull(deque.pop());
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void testSteal() throws Exception {
+        WorkStealingLinkedDeque<Integer> deque = new WorkStealingLinkedDeque<>();
+        for (int i = 0; i < 10; i++) {
+            deque.push(i);
+        }
+
+        assertEquals(new Integer(0), deque.steal());
+        assertEquals(new Integer(9), deque.pop());
+
+        List<Integer> stolen = new ArrayList<>();
+        assertEquals(3, deque.stealTo(stolen, 3));
+        assertEquals(Arrays.asList(1, 2, 3), stolen);
+
+        assertEquals(new Integer(8), deque.pop());
+        assertEquals(4, deque.stealTo(stolen, 10));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), stolen);
+        assertNull(deque.steal());
+        assertNull(deque.pop());
+
+        deque.push(10);
+        assertEquals(new Integer(10), deque.steal());
+    }
+
+    @Test
+    public void testStealConcurrency() throws Exception {
+        final WorkStealingLinkedDeque<Integer> deque = new WorkStealingLinkedDeque<>();
+        final boolean[] taken = new boolean[100000];
+        final int[] duplicates = new int[1];
+
+        Runnable thief = new Runnable() {
+            @Override
+            public void run() {
+                List<Integer> stolen = new ArrayList<>();
+                while (!Thread.currentThread().isInterrupted()) {
+                    deque.stealTo(stolen, 4);
+                    synchronized (taken) {
+                        for (Integer element : stolen) {
+                            if (taken[element]) {
+                                duplicates[0]++;
+                            }
+                            taken[element] = true;
+                        }
+                    }
+                    stolen.clear();
+                }
+            }
+        };
+
+        Thread[] thieves = new Thread[4];
+        for (int i = 0; i < thieves.length; i++) {
+            thieves[i] = new Thread(thief);
+            thieves[i].start();
+        }
+
+        for (int i = 0; i < taken.length; i++) {
+            deque.push(i);
+            if (i % 3 == 0) {
+                Integer element = deque.pop();
+                if (element != null) {
+                    synchronized (taken) {
+                        if (taken[element]) {
+                            duplicates[0]++;
+                        }
+                        taken[element] = true;
+                    }
+                }
+            }
+        }
+
+        while (!deque.isEmpty()) {
+            Thread.sleep(1);
+        }
+        for (Thread thread : thieves) {
+            thread.interrupt();
+            thread.join(1000);
+        }
+
+        synchronized (taken) {
+            assertEquals(0, duplicates[0]);
+            for (boolean t : taken) {
+                assertTrue(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package concurrent.list;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class WorkStealingPoolTest {
+
+    static class Fibonacci extends WorkStealingPool.Task<Integer> {
+        private final int n;
+
+        Fibonacci(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (n < 2) {
+                return n;
+            }
+
+            Fibonacci f1 = new Fibonacci(n - 1);
+            f1.fork();
+            Fibonacci f2 = new Fibonacci(n - 2);
+            return f2.compute() + f1.join();
+        }
+    }
+
+    static class ForkJoinFibonacci extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final int n;
+
+        ForkJoinFibonacci(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (n < 2) {
+                return n;
+            }
+
+            ForkJoinFibonacci f1 = new ForkJoinFibonacci(n - 1);
+            f1.fork();
+            ForkJoinFibonacci f2 = new ForkJoinFibonacci(n - 2);
+            return f2.compute() + f1.join();
+        }
+    }
+
+    @Test
+    public void testInvoke() throws Exception {
+        WorkStealingPool pool = new WorkStealingPool(4);
+        try {
+            assertEquals(new Integer(6765), pool.invoke(new Fibonacci(20)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        WorkStealingPool pool = new WorkStealingPool(4);
+        try {
+            final AtomicInteger counter = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(1000);
+            for (int i = 0; i < 1000; i++) {
+                pool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        counter.incrementAndGet();
+                        latch.countDown();
+                    }
+                });
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(1000, counter.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testJoinFailure() throws Exception {
+        WorkStealingPool pool = new WorkStealingPool(2);
+        try {
+            pool.invoke(new WorkStealingPool.Task<Void>() {
+                @Override
+                protected Void compute() {
+                    throw new IllegalStateException();
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownRejectsQueued() throws Exception {
+        WorkStealingPool pool = new WorkStealingPool(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        WorkStealingPool.Task<Integer> running = pool.submit(new WorkStealingPool.Task<Integer>() {
+            @Override
+            protected Integer compute() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 1;
+            }
+        });
+        WorkStealingPool.Task<Integer> queued = pool.submit(new Fibonacci(5));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+        release.countDown();
+
+        assertEquals(new Integer(1), running.join());
+        assertTrue(queued.isDone());
+        try {
+            queued.join();
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRunOnce() throws Exception {
+        WorkStealingPool pool = new WorkStealingPool(4);
+        try {
+            final AtomicInteger runs = new AtomicInteger();
+            WorkStealingPool.Task<Void> task = new WorkStealingPool.Task<Void>() {
+                @Override
+                protected Void compute() {
+                    runs.incrementAndGet();
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                }
+            };
+
+            for (int i = 0; i < 100; i++) {
+                pool.submit(task);
+            }
+            task.join();
+            Thread.sleep(50);
+
+            assertEquals(1, runs.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Ignore
+    public void testTime() throws Exception {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        WorkStealingPool pool0 = new WorkStealingPool(parallelism);
+        ForkJoinPool pool1 = new ForkJoinPool(parallelism);
+
+        // warm up
+        for (int i = 0; i < 5; i++) {
+            pool0.invoke(new Fibonacci(25));
+            pool1.invoke(new ForkJoinFibonacci(25));
+        }
+
+        long time0 = System.currentTimeMillis();
+        int result0 = pool0.invoke(new Fibonacci(30));
+        time0 = System.currentTimeMillis() - time0;
+
+        long time1 = System.currentTimeMillis();
+        int result1 = pool1.invoke(new ForkJoinFibonacci(30));
+        time1 = System.currentTimeMillis() - time1;
+
+        pool0.shutdown();
+        pool1.shutdown();
+
+        System.out.println(time0);
+        System.out.println(time1);
+
+        assertEquals(result1, result0);
+    }
+}